@@ -4,7 +4,7 @@ import { useAppData } from '../context/AppDataContext';
 import { Plus, Calendar, Clock, CheckCircle, Trash2, Edit2, X } from 'lucide-react';
 
 const Chores = () => {
-    const { chores, addChore, updateChore, deleteChore, toggleChoreStatus, currentGroup, user: selectedUser } = useAppData();
+    const { chores, addChore, addRecurringChore, updateChore, deleteChore, toggleChoreStatus, currentGroup, user: selectedUser } = useAppData();
     const [isModalOpen, setIsModalOpen] = useState(false);
     const [isEditMode, setIsEditMode] = useState(false);
     const [selectedChore, setSelectedChore] = useState(null);
@@ -15,7 +15,9 @@ const Chores = () => {
         description: '',
         assignedToId: '',
         date: new Date().toISOString().split('T')[0],
-        time: '12:00'
+        time: '12:00',
+        frequency: '',
+        weight: 1
     });
 
     const [randomAssignee, setRandomAssignee] = useState(false);
@@ -32,7 +34,9 @@ const Chores = () => {
             description: '',
             assignedToId: '',
             date: new Date().toISOString().split('T')[0],
-            time: '12:00'
+            time: '12:00',
+            frequency: '',
+            weight: 1
         });
         setRandomAssignee(false);
         setIsEditMode(true);
@@ -41,12 +45,13 @@ const Chores = () => {
 
     const handleChoreClick = (chore) => {
         setSelectedChore(chore);
-        // Parse dueDate back to date and time if possible, or just set date
-        const [date, time] = (chore.dueDate || '').split(' ');
+        const date = chore.dueDate;
+        const time = chore.dueTime;
         setNewChore({
             ...chore,
             date: date || new Date().toISOString().split('T')[0],
             time: time || '12:00',
+            weight: chore.weight || 1,
             assignedToId: chore.assignedTo ? chore.assignedTo.id : ''
         });
         setRandomAssignee(false);
@@ -89,7 +94,8 @@ const Chores = () => {
 
         const chorePayload = {
             ...newChore,
-            dueDate: `${newChore.date} ${newChore.time}`,
+            dueDate: newChore.date,
+            dueTime: newChore.time || null,
             status: newChore.status || 'pending',
             assignedToId: newChore.assignedToId,
             useFairAssignment: randomAssignee // Use fair assignment if checkbox is checked
@@ -97,6 +103,8 @@ const Chores = () => {
 
         if (selectedChore) {
             updateChore({ ...chorePayload, id: selectedChore.id });
+        } else if (newChore.frequency) {
+            addRecurringChore(chorePayload);
         } else {
             addChore(chorePayload);
         }
@@ -165,8 +173,8 @@ const Chores = () => {
     // Sort chores within groups by time
     Object.keys(groupedChores).forEach(date => {
         groupedChores[date].sort((a, b) => {
-            const timeA = (a.dueDate || '').split(' ')[1] || '23:59';
-            const timeB = (b.dueDate || '').split(' ')[1] || '23:59';
+            const timeA = a.dueTime || '23:59';
+            const timeB = b.dueTime || '23:59';
             return timeA.localeCompare(timeB);
         });
     });
@@ -234,7 +242,7 @@ const Chores = () => {
                             <h3 className="task-section-title">{getDateLabel(date)}</h3>
                             <div className="tasks-grid">
                                 {groupedChores[date].map(chore => {
-                                    const time = (chore.dueDate || '').split(' ')[1] || '';
+                                    const time = chore.dueTime || '';
                                     // Format time to 12h
                                     const formatTime = (t) => {
                                         if (!t) return '';
@@ -320,7 +328,7 @@ const Chores = () => {
                                 </div>
                                 <div className="detail-row">
                                     <span className="label">Due Date:</span>
-                                    <span className="value">{selectedChore.dueDate}</span>
+                                    <span className="value">{[selectedChore.dueDate, selectedChore.dueTime].filter(Boolean).join(' ')}</span>
                                 </div>
                                 <div className="modal-actions">
                                     {selectedChore.status !== 'completed' && (
@@ -406,6 +414,37 @@ const Chores = () => {
                                         />
                                     </div>
                                 </div>
+                                <div className="form-group">
+                                    <label>Effort</label>
+                                    <select
+                                        name="weight"
+                                        value={newChore.weight}
+                                        onChange={handleInputChange}
+                                        className="form-select-enhanced"
+                                        title="Heavier chores count for more in fair assignment"
+                                    >
+                                        {[...Array(10)].map((_, i) => (
+                                            <option key={i + 1} value={i + 1}>
+                                                {i + 1}{i === 0 ? ' (light)' : i === 9 ? ' (heaviest)' : ''}
+                                            </option>
+                                        ))}
+                                    </select>
+                                </div>
+                                {!selectedChore && (
+                                    <div className="form-group">
+                                        <label>Repeat</label>
+                                        <select
+                                            name="frequency"
+                                            value={newChore.frequency}
+                                            onChange={handleInputChange}
+                                            className="form-select-enhanced"
+                                        >
+                                            <option value="">Does not repeat</option>
+                                            <option value="daily">Every day</option>
+                                            <option value="weekly">Every week</option>
+                                        </select>
+                                    </div>
+                                )}
                                 <div className="modal-actions">
                                     <button type="submit" className="modal-submit-button">Save</button>
 
@@ -1,6 +1,6 @@
 import React, { useEffect, useState, useRef } from 'react';
 import { Link, useLocation, useNavigate } from 'react-router-dom';
-import { useAppData } from '../context/AppDataContext';
+import { useAppData, avatarSrc } from '../context/AppDataContext';
 import { LayoutDashboard, CheckSquare, DollarSign, Settings as SettingsIcon, LogOut, Menu, Bell } from 'lucide-react';
 import Toast from './Toast';
 import Notifications from './Notifications';
@@ -58,7 +58,7 @@ const Layout = ({ children }) => {
                     <div className="user-profile-card" onClick={() => setCollapsed(!collapsed)} style={{cursor: 'pointer'}}>
                         <div className="user-avatar-large">
                             {user.profilePicture ? (
-                                <img src={user.profilePicture} alt="User" />
+                                <img src={avatarSrc(user.profilePicture)} alt="User" />
                             ) : (
                                 <div className="avatar-placeholder"></div>
                             )}
@@ -68,6 +68,12 @@ const Notifications = ({ onClose }) => {
                                     <p className="notification-detail">Check expenses for details.</p>
                                 </div>
                             )}
+                            {notification.type === 'BUDGET_ALERT' && (
+                                <div className="notification-content">
+                                    <p>{notification.message}</p>
+                                    <p className="notification-detail">Check the budget for <strong>{notification.group.name}</strong>.</p>
+                                </div>
+                            )}
                         </div>
                     </div>
                 ))}
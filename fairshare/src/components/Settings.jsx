@@ -1,5 +1,5 @@
 import React, { useState, useRef } from 'react';
-import { useAppData } from '../context/AppDataContext';
+import { useAppData, avatarSrc } from '../context/AppDataContext';
 import { User, Users, LogOut, Trash2, Copy, Camera, X, UserPlus, Crown } from 'lucide-react';
 
 const Settings = () => {
@@ -428,7 +428,7 @@ const Settings = () => {
                                 />
                                 {(isEditingBasicInfo ? editFormData.profilePicture : user.profilePicture) ? (
                                     <img
-                                        src={isEditingBasicInfo ? editFormData.profilePicture : user.profilePicture}
+                                        src={avatarSrc(isEditingBasicInfo ? editFormData.profilePicture : user.profilePicture)}
                                         alt="Profile"
                                         className="profile-picture-circle compact"
                                     />
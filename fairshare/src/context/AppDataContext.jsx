@@ -4,6 +4,11 @@ const AppDataContext = createContext();
 
 export const useAppData = () => useContext(AppDataContext);
 
+// Profile pictures come back as server paths (/api/users/{id}/avatar?v=...);
+// data URLs from a pending upload are used as-is.
+export const avatarSrc = (picture) =>
+    picture && picture.startsWith('/api/') ? `http://localhost:8080${picture}` : picture;
+
 export const AppDataProvider = ({ children }) => {
     // Initialize user from localStorage if available
     const [user, setUser] = useState(() => {
@@ -34,9 +39,7 @@ export const AppDataProvider = ({ children }) => {
 
     useEffect(() => {
         if (currentGroup) {
-            fetchGroupChores(currentGroup.id);
-            fetchGroupExpenses(currentGroup.id);
-            fetchFairnessScores(currentGroup.id);
+            fetchGroupDashboard(currentGroup.id);
             // Keep local budget state in sync with the selected group's stored monthlyBudget
             try {
                 setBudget(currentGroup.monthlyBudget || 0);
@@ -65,12 +68,37 @@ export const AppDataProvider = ({ children }) => {
         }
     };
 
+    // List responses refer to users by id; put the user objects back on each row
+    const withChoreUsers = (chores, users) =>
+        chores.map(c => ({ ...c, assignedTo: users[c.assignedToId] || null }));
+    const withExpenseUsers = (expenses, users) =>
+        expenses.map(e => ({ ...e, paidBy: users[e.paidById] || null }));
+
+    // Chores, expenses and fairness scores for the selected group in one request
+    const fetchGroupDashboard = async (groupId) => {
+        try {
+            let url = `http://localhost:8080/api/groups/${groupId}/dashboard`;
+            if (user && user.id) {
+                url += `?userId=${user.id}`;
+            }
+            const response = await fetch(url);
+            if (response.ok) {
+                const data = await response.json();
+                setChores(withChoreUsers(data.chores, data.users));
+                setExpenses(withExpenseUsers(data.expenses, data.users));
+                setFairnessScores(data.fairnessScores);
+            }
+        } catch (error) {
+            console.error("Failed to fetch group dashboard:", error);
+        }
+    };
+
     const fetchGroupChores = async (groupId) => {
         try {
             const response = await fetch(`http://localhost:8080/api/chores/group/${groupId}`);
             if (response.ok) {
                 const data = await response.json();
-                setChores(data);
+                setChores(withChoreUsers(data.items, data.users));
             }
         } catch (error) {
             console.error("Failed to fetch chores:", error);
@@ -86,7 +114,7 @@ export const AppDataProvider = ({ children }) => {
             const response = await fetch(url);
             if (response.ok) {
                 const data = await response.json();
-                setExpenses(data);
+                setExpenses(withExpenseUsers(data.items, data.users));
             }
         } catch (error) {
             console.error("Failed to fetch expenses:", error);
@@ -246,6 +274,41 @@ export const AppDataProvider = ({ children }) => {
         }
     };
 
+    // Repeating chore: the server creates the occurrences for the next two weeks
+    const addRecurringChore = async (chore) => {
+        if (!currentGroup) {
+            showToast("Please join a group first.");
+            return;
+        }
+        try {
+            const response = await fetch(`http://localhost:8080/api/chores/group/${currentGroup.id}/recurring`, {
+                method: 'POST',
+                headers: { 'Content-Type': 'application/json' },
+                body: JSON.stringify({
+                    title: chore.title,
+                    description: chore.description,
+                    dueTime: chore.dueTime,
+                    weight: chore.weight,
+                    frequency: chore.frequency,
+                    startDate: chore.date,
+                    assignedToId: chore.useFairAssignment ? null : chore.assignedToId
+                }),
+            });
+            if (response.ok) {
+                await fetchGroupChores(currentGroup.id);
+                fetchFairnessScores(currentGroup.id);
+                showToast("Recurring chore added successfully!");
+            } else {
+                const errorText = await response.text();
+                console.error('Add recurring chore failed:', errorText);
+                showToast(errorText || "Failed to add recurring chore.");
+            }
+        } catch (error) {
+            console.error("Failed to add recurring chore:", error);
+            showToast("Failed to add recurring chore.");
+        }
+    };
+
     const toggleChoreStatus = async (id) => {
         const choreToUpdate = chores.find(c => c.id === id);
         if (!choreToUpdate) return;
@@ -798,6 +861,7 @@ export const AppDataProvider = ({ children }) => {
             updateUser,
             updateBudget,
             addChore,
+            addRecurringChore,
             updateChore,
             deleteChore,
             toggleChoreStatus,
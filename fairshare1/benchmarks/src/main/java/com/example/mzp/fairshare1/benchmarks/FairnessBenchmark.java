@@ -0,0 +1,126 @@
+package com.example.mzp.fairshare1.benchmarks;
+
+import com.example.mzp.fairshare1.entity.Chore;
+import com.example.mzp.fairshare1.entity.Group;
+import com.example.mzp.fairshare1.entity.User;
+import com.example.mzp.fairshare1.repositories.ChoreRepository;
+import com.example.mzp.fairshare1.repositories.GroupRepository;
+import com.example.mzp.fairshare1.services.FairnessService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FairnessService.calculateFairnessScores and selectFairestMember over synthetic
+ * groups. The "cold" variants drop the cached scoreboard first, so they measure
+ * the per-assignee count query the scoreboard is rebuilt from.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FairnessBenchmark {
+
+    private static final long GROUP_ID = 1L;
+
+    @Param({ "fake", "h2" })
+    public String backend;
+
+    @Param({ "10", "1000", "10000" })
+    public int members;
+
+    @Param({ "1000", "100000", "1000000" })
+    public int chores;
+
+    private FairnessService fairnessService;
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<User> users = SyntheticData.users(1, members);
+        Group group = SyntheticData.group(GROUP_ID, users);
+        List<Chore> history = SyntheticData.chores(group, users, chores, 42);
+
+        if ("h2".equals(backend)) {
+            context = Fixtures.startH2Application();
+            JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+            SyntheticData.insertUsers(jdbc, users);
+            SyntheticData.insertGroup(jdbc, group);
+            SyntheticData.insertChores(jdbc, history);
+            fairnessService = context.getBean(FairnessService.class);
+        } else {
+            fairnessService = new FairnessService();
+            Fixtures.inject(fairnessService, "groupRepository", Fixtures.fakeRepository(GroupRepository.class,
+                    Map.of("findById", args -> Optional.of(group))));
+            Fixtures.inject(fairnessService, "choreRepository", Fixtures.fakeRepository(ChoreRepository.class,
+                    Map.of("countByAssignee", args -> countByAssignee(history))));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public Map<Long, FairnessService.FairnessScore> calculateFairnessScores() {
+        return fairnessService.calculateFairnessScores(GROUP_ID);
+    }
+
+    @Benchmark
+    public Long selectFairestMember() {
+        return fairnessService.selectFairestMember(GROUP_ID);
+    }
+
+    @Benchmark
+    public Map<Long, FairnessService.FairnessScore> calculateFairnessScoresCold() {
+        fairnessService.evictGroup(GROUP_ID);
+        return fairnessService.calculateFairnessScores(GROUP_ID);
+    }
+
+    // What the grouped SQL query returns, computed over the in-memory history
+    private static List<ChoreRepository.AssigneeChoreCounts> countByAssignee(List<Chore> history) {
+        // {pending, completed, pending weight, completed weight} per assignee
+        Map<Long, long[]> counts = new HashMap<>();
+        for (Chore chore : history) {
+            long[] c = counts.computeIfAbsent(chore.getAssignedTo().getId(), id -> new long[4]);
+            int completed = "completed".equalsIgnoreCase(chore.getStatus()) ? 1 : 0;
+            c[completed]++;
+            c[2 + completed] += chore.getWeight() != null ? chore.getWeight() : 1;
+        }
+        List<ChoreRepository.AssigneeChoreCounts> rows = new ArrayList<>(counts.size());
+        counts.forEach((userId, c) -> rows.add(new ChoreRepository.AssigneeChoreCounts() {
+            public Long getAssignedToId() {
+                return userId;
+            }
+
+            public Long getCompletedCount() {
+                return c[1];
+            }
+
+            public Long getPendingCount() {
+                return c[0];
+            }
+
+            public Long getCompletedWeight() {
+                return c[3];
+            }
+
+            public Long getPendingWeight() {
+                return c[2];
+            }
+        }));
+        return rows;
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.mzp.fairshare1.benchmarks;
+
+import com.example.mzp.fairshare1.Fairshare1Application;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Shared setup for the benchmarks: in-memory repository fakes, field injection
+ * for the services, and an application context backed by an H2 database.
+ */
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    /**
+     * A repository implementation that answers only the listed methods (by name)
+     * and fails loudly on anything else, so a benchmark never silently measures
+     * an unexpected code path.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T fakeRepository(Class<T> type, Map<String, Function<Object[], Object>> methods) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+            Function<Object[], Object> handler = methods.get(method.getName());
+            if (handler != null) {
+                return handler.apply(args);
+            }
+            switch (method.getName()) {
+                case "toString":
+                    return "Fake" + type.getSimpleName();
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                default:
+                    throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+            }
+        });
+    }
+
+    /**
+     * Set a private @Autowired field the way Spring would
+     */
+    static void inject(Object target, String fieldName, Object value) {
+        for (Class<?> type = target.getClass(); type != null; type = type.getSuperclass()) {
+            try {
+                Field field = type.getDeclaredField(fieldName);
+                field.setAccessible(true);
+                field.set(target, value);
+                return;
+            } catch (NoSuchFieldException e) {
+                // keep looking in the superclass
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        throw new IllegalArgumentException("No field " + fieldName + " on " + target.getClass());
+    }
+
+    /**
+     * Read a private field, looking through Spring's proxy to the actual bean
+     */
+    static Object read(Object bean, String fieldName) {
+        Object target = AopProxyUtils.getSingletonTarget(bean);
+        if (target == null) {
+            target = bean;
+        }
+        try {
+            Field field = target.getClass().getDeclaredField(fieldName);
+            field.setAccessible(true);
+            return field.get(target);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Start the full application against a private in-memory H2 database.
+     * Command-line style arguments are used so they override application.properties.
+     */
+    static ConfigurableApplicationContext startH2Application() {
+        return new SpringApplicationBuilder(Fairshare1Application.class)
+                .web(WebApplicationType.NONE)
+                .run(h2Arguments().toArray(new String[0]));
+    }
+
+    /**
+     * Start the application with its embedded Tomcat on a random port (read it from
+     * local.server.port). Every JDBC statement is delayed by dbLatencyMs to stand in
+     * for the network round trip to MySQL that an in-memory database does not have.
+     */
+    static ConfigurableApplicationContext startH2WebApplication(long dbLatencyMs, String... extraArgs) {
+        List<String> args = h2Arguments();
+        args.add("--server.port=0");
+        args.addAll(Arrays.asList(extraArgs));
+        return new SpringApplicationBuilder(Fairshare1Application.class)
+                .web(WebApplicationType.SERVLET)
+                .initializers(context -> context.getBeanFactory().addBeanPostProcessor(new BeanPostProcessor() {
+                    @Override
+                    public Object postProcessAfterInitialization(Object bean, String beanName) {
+                        return bean instanceof DataSource ? withLatency((DataSource) bean, dbLatencyMs) : bean;
+                    }
+                }))
+                .run(args.toArray(new String[0]));
+    }
+
+    private static List<String> h2Arguments() {
+        String url = "jdbc:h2:mem:bench-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+        return new ArrayList<>(List.of("--spring.datasource.url=" + url,
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--spring.jpa.show-sql=false",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--fairshare.avatars.dir=target/bench-avatars"));
+    }
+
+    // DataSource whose statements sleep before executing; everything else passes through
+    private static DataSource withLatency(DataSource dataSource, long latencyMs) {
+        if (latencyMs <= 0) {
+            return dataSource;
+        }
+        return delegate(DataSource.class, dataSource, (method, result) -> result instanceof Connection
+                ? delegate(Connection.class, (Connection) result, (m, statement) -> statement instanceof Statement
+                        && m.getReturnType().isInterface()
+                        ? delegate(m.getReturnType(), statement, null, latencyMs)
+                        : statement, 0)
+                : result, 0);
+    }
+
+    /**
+     * Proxy of the given interface that optionally sleeps before execute* calls and
+     * passes every result through wrap, so connections can hand out slow statements.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T delegate(Class<?> type, Object target, BiFunction<Method, Object, Object> wrap,
+            long latencyMs) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+            if (latencyMs > 0 && method.getName().startsWith("execute")) {
+                Thread.sleep(latencyMs);
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+            return wrap != null ? wrap.apply(method, result) : result;
+        });
+    }
+}
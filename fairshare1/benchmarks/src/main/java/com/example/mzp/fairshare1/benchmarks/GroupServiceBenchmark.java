@@ -0,0 +1,103 @@
+package com.example.mzp.fairshare1.benchmarks;
+
+import com.example.mzp.fairshare1.entity.Group;
+import com.example.mzp.fairshare1.entity.User;
+import com.example.mzp.fairshare1.repositories.GroupRepository;
+import com.example.mzp.fairshare1.services.GroupService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GroupService.getUserGroups for a user in a handful of groups while the total
+ * number of groups grows. The "cold" variant clears the user-to-groups cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GroupServiceBenchmark {
+
+    private static final int MEMBERS_PER_GROUP = 4;
+    private static final int GROUPS_PER_USER = 5;
+
+    @Param({ "fake", "h2" })
+    public String backend;
+
+    @Param({ "100", "10000" })
+    public int totalGroups;
+
+    private GroupService groupService;
+    private User user;
+    private Map<?, ?> userGroupCache;
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Consecutive blocks of users form each group; user 1 also joins the first few groups
+        List<User> users = SyntheticData.users(1, totalGroups * MEMBERS_PER_GROUP);
+        user = users.get(0);
+        List<Group> groups = new ArrayList<>(totalGroups);
+        for (int g = 0; g < totalGroups; g++) {
+            List<User> members = new ArrayList<>(
+                    users.subList(g * MEMBERS_PER_GROUP, (g + 1) * MEMBERS_PER_GROUP));
+            if (g > 0 && g < GROUPS_PER_USER) {
+                members.add(user);
+            }
+            groups.add(SyntheticData.group(g + 1, members));
+        }
+
+        if ("h2".equals(backend)) {
+            context = Fixtures.startH2Application();
+            JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+            SyntheticData.insertUsers(jdbc, users);
+            groups.forEach(group -> SyntheticData.insertGroup(jdbc, group));
+            groupService = context.getBean(GroupService.class);
+        } else {
+            Map<Long, Group> byId = new HashMap<>();
+            Map<Long, List<Long>> groupIdsByMember = new HashMap<>();
+            for (Group group : groups) {
+                byId.put(group.getId(), group);
+                group.getMembers().forEach(member -> groupIdsByMember
+                        .computeIfAbsent(member.getId(), id -> new ArrayList<>()).add(group.getId()));
+            }
+            groupService = new GroupService();
+            Fixtures.inject(groupService, "groupRepository", Fixtures.fakeRepository(GroupRepository.class, Map.of(
+                    "findGroupIdsByMemberId", args -> groupIdsByMember.getOrDefault((Long) args[0], List.of()),
+                    "findByIdIn", args -> {
+                        List<Group> found = new ArrayList<>();
+                        for (Object id : (Iterable<?>) args[0]) {
+                            found.add(byId.get((Long) id));
+                        }
+                        return found;
+                    })));
+        }
+        userGroupCache = (Map<?, ?>) Fixtures.read(groupService, "userGroupIds");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public List<Group> getUserGroups() {
+        return groupService.getUserGroups(user);
+    }
+
+    @Benchmark
+    public List<Group> getUserGroupsCold() {
+        userGroupCache.clear();
+        return groupService.getUserGroups(user);
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.mzp.fairshare1.benchmarks;
+
+import com.example.mzp.fairshare1.entity.Expense;
+import com.example.mzp.fairshare1.entity.Group;
+import com.example.mzp.fairshare1.entity.User;
+import com.example.mzp.fairshare1.services.NotificationService;
+import com.example.mzp.fairshare1.services.NotificationStreamService;
+import com.example.mzp.fairshare1.services.NotificationWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * NotificationService.sendExpenseNotification for one expense in a group of the
+ * given size: the time the request thread spends handing rows to the writer,
+ * including any backpressure waits once the queue is full.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotificationFanOutBenchmark {
+
+    @Param({ "fake", "h2" })
+    public String backend;
+
+    @Param({ "10", "1000", "10000" })
+    public int members;
+
+    private NotificationService notificationService;
+    private NotificationWriter writer;
+    private Expense expense;
+    private User creator;
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        List<User> users = SyntheticData.users(1, members);
+        Group group = SyntheticData.group(1, users);
+        creator = users.get(0);
+        expense = new Expense("Groceries", 120.0, LocalDate.of(2026, 1, 1), creator, group);
+        expense.setTitle("Groceries");
+
+        if ("h2".equals(backend)) {
+            context = Fixtures.startH2Application();
+            JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+            SyntheticData.insertUsers(jdbc, users);
+            SyntheticData.insertGroup(jdbc, group);
+            notificationService = context.getBean(NotificationService.class);
+            writer = context.getBean(NotificationWriter.class);
+        } else {
+            writer = new NotificationWriter();
+            Fixtures.inject(writer, "jdbcTemplate", new DiscardingJdbcTemplate());
+            Fixtures.inject(writer, "queueCapacity", 10_000);
+            Fixtures.inject(writer, "batchSize", 500);
+            Fixtures.inject(writer, "flushIntervalMs", 50L);
+            writer.start();
+
+            notificationService = new NotificationService();
+            Fixtures.inject(notificationService, "notificationWriter", writer);
+            Fixtures.inject(notificationService, "notificationStreamService", new NotificationStreamService());
+            Fixtures.inject(notificationService, "taskExecutor", (TaskExecutor) Runnable::run);
+            notificationService.registerWriterListener();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (context != null) {
+            context.close();
+        } else {
+            writer.shutdown();
+        }
+    }
+
+    @Benchmark
+    public void sendExpenseNotification() {
+        notificationService.sendExpenseNotification(expense, creator);
+    }
+
+    // Accepts every batch without touching a database
+    private static class DiscardingJdbcTemplate extends JdbcTemplate {
+        @Override
+        public int[] batchUpdate(PreparedStatementCreator psc, BatchPreparedStatementSetter pss,
+                KeyHolder generatedKeyHolder) {
+            return new int[pss.getBatchSize()];
+        }
+    }
+}
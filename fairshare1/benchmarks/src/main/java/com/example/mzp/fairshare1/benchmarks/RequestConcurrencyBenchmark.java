@@ -0,0 +1,100 @@
+package com.example.mzp.fairshare1.benchmarks;
+
+import com.example.mzp.fairshare1.entity.Group;
+import com.example.mzp.fairshare1.entity.User;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A burst of concurrent clients each requesting GET /api/chores/group/{id} from a
+ * running Tomcat, with request handling on platform threads (Tomcat's pool of 200)
+ * or on virtual threads. Statements are delayed by dbLatencyMs to model the MySQL
+ * round trip, so each request spends most of its time blocked on JDBC.
+ * The virtual mode needs Java 21: run with ../mvnw -Pjava21 package exec:exec.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestConcurrencyBenchmark {
+
+    @Param({ "platform", "virtual" })
+    public String threads;
+
+    @Param({ "100", "1000" })
+    public int clients;
+
+    @Param({ "20", "400" })
+    public int poolSize;
+
+    @Param({ "5" })
+    public int dbLatencyMs;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        boolean virtual = "virtual".equals(threads);
+        if (virtual && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("Virtual threads need Java 21; build and run with -Pjava21");
+        }
+        context = Fixtures.startH2WebApplication(dbLatencyMs,
+                "--spring.threads.virtual.enabled=" + virtual,
+                "--spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                "--spring.datasource.hikari.connection-timeout=60000",
+                "--server.tomcat.accept-count=" + clients);
+
+        List<User> users = SyntheticData.users(1, 20);
+        Group group = SyntheticData.group(1, users);
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        SyntheticData.insertUsers(jdbc, users);
+        SyntheticData.insertGroup(jdbc, group);
+        SyntheticData.insertChores(jdbc, SyntheticData.chores(group, users, 50, 42));
+
+        String port = context.getEnvironment().getProperty("local.server.port");
+        client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(30)).build();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/chores/group/" + group.getId()))
+                .timeout(Duration.ofSeconds(120))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Time until every client in the burst has its response
+     */
+    @Benchmark
+    public int burst() {
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+        }
+        int ok = 0;
+        for (CompletableFuture<HttpResponse<Void>> response : responses) {
+            int status = response.join().statusCode();
+            if (status != 200) {
+                throw new IllegalStateException("Request failed with status " + status);
+            }
+            ok++;
+        }
+        return ok;
+    }
+}
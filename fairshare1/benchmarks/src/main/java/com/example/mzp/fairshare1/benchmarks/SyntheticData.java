@@ -0,0 +1,95 @@
+package com.example.mzp.fairshare1.benchmarks;
+
+import com.example.mzp.fairshare1.entity.Chore;
+import com.example.mzp.fairshare1.entity.Group;
+import com.example.mzp.fairshare1.entity.User;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic users, groups and chores, either as detached entities
+ * for the in-memory fakes or bulk-inserted into H2.
+ */
+final class SyntheticData {
+
+    private static final int INSERT_CHUNK = 10_000;
+
+    private SyntheticData() {
+    }
+
+    static List<User> users(long firstId, int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long id = firstId + i;
+            User user = new User("Member " + id, "member" + id + "@example.com", "secret");
+            user.setId(id);
+            users.add(user);
+        }
+        return users;
+    }
+
+    static Group group(long id, List<User> members) {
+        Group group = new Group("Group " + id, code(id));
+        group.setId(id);
+        members.forEach(group::addMember);
+        group.setOwner(members.get(0));
+        return group;
+    }
+
+    // Chores are spread over the members with roughly one in three still pending
+    static List<Chore> chores(Group group, List<User> members, int count, long seed) {
+        Random random = new Random(seed);
+        List<Chore> chores = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User assignee = members.get(random.nextInt(members.size()));
+            String status = random.nextInt(3) == 0 ? "pending" : "completed";
+            Chore chore = new Chore("Chore " + i, null, null, status, assignee, group);
+            chore.setId((long) i + 1);
+            chores.add(chore);
+        }
+        return chores;
+    }
+
+    static void insertUsers(JdbcTemplate jdbc, List<User> users) {
+        for (int from = 0; from < users.size(); from += INSERT_CHUNK) {
+            List<Object[]> rows = new ArrayList<>();
+            for (User user : users.subList(from, Math.min(users.size(), from + INSERT_CHUNK))) {
+                rows.add(new Object[] { user.getId(), user.getFullName(), user.getEmail(), user.getPassword() });
+            }
+            jdbc.batchUpdate("insert into users (id, name, email, password) values (?, ?, ?, ?)", rows);
+        }
+    }
+
+    static void insertGroup(JdbcTemplate jdbc, Group group) {
+        jdbc.update("insert into groups_table (id, name, code, monthly_budget, owner_id) values (?, ?, ?, 0, ?)",
+                group.getId(), group.getName(), group.getCode(), group.getOwner().getId());
+        List<Object[]> rows = new ArrayList<>();
+        for (User member : group.getMembers()) {
+            rows.add(new Object[] { group.getId(), member.getId() });
+            if (rows.size() == INSERT_CHUNK) {
+                jdbc.batchUpdate("insert into group_members (group_id, user_id) values (?, ?)", rows);
+                rows.clear();
+            }
+        }
+        jdbc.batchUpdate("insert into group_members (group_id, user_id) values (?, ?)", rows);
+    }
+
+    static void insertChores(JdbcTemplate jdbc, List<Chore> chores) {
+        for (int from = 0; from < chores.size(); from += INSERT_CHUNK) {
+            List<Object[]> rows = new ArrayList<>();
+            for (Chore chore : chores.subList(from, Math.min(chores.size(), from + INSERT_CHUNK))) {
+                rows.add(new Object[] { chore.getTitle(), chore.getStatus(), chore.getAssignedTo().getId(),
+                        chore.getGroup().getId() });
+            }
+            jdbc.batchUpdate("insert into chores (title, status, assigned_to_id, group_id) values (?, ?, ?, ?)",
+                    rows);
+        }
+    }
+
+    private static String code(long id) {
+        return String.format("BEN%06d", id % 1_000_000);
+    }
+}
@@ -1,10 +1,25 @@
 package com.example.mzp.fairshare1.controller;
 
 import com.example.mzp.fairshare1.entity.Chore;
+import com.example.mzp.fairshare1.entity.ChoreRecurrence;
+import com.example.mzp.fairshare1.repositories.ChoreRepository;
+import com.example.mzp.fairshare1.services.ChoreRecurrenceService;
 import com.example.mzp.fairshare1.services.ChoreService;
+import com.example.mzp.fairshare1.services.ExportService;
+import com.example.mzp.fairshare1.services.GroupVersionService;
+import com.example.mzp.fairshare1.services.ReferencedList;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -25,23 +40,24 @@ public class ChoreController {
     @Autowired
     private com.example.mzp.fairshare1.services.FairnessService fairnessService;
 
-    @PostMapping("/group/{groupId}")
-    public Chore createChore(@PathVariable Long groupId, @RequestBody Map<String, Object> payload) {
-        Chore chore = new Chore();
-        chore.setTitle((String) payload.get("title"));
-        chore.setDescription((String) payload.get("description"));
-        chore.setDueDate((String) payload.get("dueDate"));
-        chore.setStatus((String) payload.get("status"));
+    @Autowired
+    private GroupVersionService groupVersionService;
 
+    @Autowired
+    private ChoreRecurrenceService choreRecurrenceService;
 
-        Object assignedToIdObj = payload.get("assignedToId");
-        Long assignedToId = null;
-        if (assignedToIdObj != null && !assignedToIdObj.toString().isEmpty()) {
-            try {
-                assignedToId = Long.valueOf(assignedToIdObj.toString());
-            } catch (NumberFormatException e) {
-            }
+    @Autowired
+    private ExportService exportService;
+
+    @PostMapping("/group/{groupId}")
+    public ResponseEntity<?> createChore(@PathVariable Long groupId, @RequestBody Map<String, Object> payload) {
+        Chore chore;
+        try {
+            chore = toChore(payload);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         }
+        Long assignedToId = parseId(payload.get("assignedToId"));
 
         boolean useFairAssignment = Boolean.TRUE.equals(payload.get("useFairAssignment"));
 
@@ -56,17 +72,134 @@ public class ChoreController {
             });
         }
 
-        return createdChore;
+        return ResponseEntity.ok(createdChore);
+    }
+
+    // Several chores at once: {creatorId, useFairAssignment, chores: [{title, ..., assignedToId}]}.
+    // Unassigned chores are spread over the group together and saved in one transaction.
+    @PostMapping("/group/{groupId}/bulk")
+    public ResponseEntity<?> createChores(@PathVariable Long groupId, @RequestBody Map<String, Object> payload) {
+        if (!(payload.get("chores") instanceof List) || ((List<?>) payload.get("chores")).isEmpty()) {
+            return ResponseEntity.badRequest().body("Missing 'chores' in payload");
+        }
+        List<Chore> chores = new ArrayList<>();
+        List<Long> assignedToIds = new ArrayList<>();
+        for (Object item : (List<?>) payload.get("chores")) {
+            if (!(item instanceof Map)) {
+                return ResponseEntity.badRequest().body("Each chore must be an object");
+            }
+            try {
+                chores.add(toChore((Map<?, ?>) item));
+            } catch (RuntimeException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+            assignedToIds.add(parseId(((Map<?, ?>) item).get("assignedToId")));
+        }
+        boolean useFairAssignment = Boolean.TRUE.equals(payload.get("useFairAssignment"));
+
+        List<Chore> created;
+        try {
+            created = choreService.createChores(groupId, chores, assignedToIds, useFairAssignment);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+
+        Long creatorId = parseId(payload.get("creatorId"));
+        if (creatorId != null) {
+            userRepository.findById(creatorId)
+                    .ifPresent(creator -> notificationService.sendChoreNotifications(created, creator));
+        }
+        return ResponseEntity.ok(created);
+    }
+
+    // A repeating chore: {title, description, dueTime, weight, frequency: daily|weekly|custom,
+    // intervalDays, startDate, endDate, assignedToId}. Without an assignee each
+    // occurrence is assigned fairly. Occurrences up to the horizon are created at once.
+    @PostMapping("/group/{groupId}/recurring")
+    public ResponseEntity<?> createRecurrence(@PathVariable Long groupId, @RequestBody Map<String, Object> payload) {
+        ChoreRecurrence recurrence = new ChoreRecurrence();
+        recurrence.setTitle((String) payload.get("title"));
+        recurrence.setDescription((String) payload.get("description"));
+        recurrence.setDueTime(parseTime(payload.get("dueTime"), null));
+        recurrence.setFrequency((String) payload.get("frequency"));
+        Integer intervalDays = parseInteger(payload.get("intervalDays"));
+        recurrence.setIntervalDays(intervalDays != null ? intervalDays : 0);
+        recurrence.setWeight(parseInteger(payload.get("weight")));
+        Long assignedToId = parseId(payload.get("assignedToId"));
+        recurrence.setAssignedToId(assignedToId != null && assignedToId != 0 ? assignedToId : null);
+        try {
+            recurrence.setStartDate(parseDate(payload.get("startDate")));
+            recurrence.setEndDate(parseDate(payload.get("endDate")));
+            return ResponseEntity.ok(choreRecurrenceService.createRecurrence(groupId, recurrence));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/group/{groupId}/recurring")
+    public List<ChoreRecurrence> getGroupRecurrences(@PathVariable Long groupId) {
+        return choreRecurrenceService.getGroupRecurrences(groupId);
+    }
+
+    @DeleteMapping("/recurring/{id}")
+    public ResponseEntity<?> stopRecurrence(@PathVariable Long id) {
+        try {
+            choreRecurrenceService.stopRecurrence(id);
+            return ResponseEntity.ok().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/group/{groupId}")
-    public List<Chore> getGroupChores(@PathVariable Long groupId) {
-        return choreService.getGroupChores(groupId);
+    public ResponseEntity<?> getGroupChores(@PathVariable Long groupId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            WebRequest request) {
+        if (request.checkNotModified(groupVersionService.etag(groupId))) {
+            return null;
+        }
+        try {
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache())
+                    .body(choreService.getGroupChores(groupId, from, to));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
+    // Every chore of the group as a csv or ndjson download, optionally gzipped
+    @GetMapping("/group/{groupId}/export")
+    public ResponseEntity<StreamingResponseBody> exportChores(@PathVariable Long groupId, @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        ExportService.Format exportFormat;
+        try {
+            exportFormat = ExportService.Format.of(format);
+            exportService.checkGroup(groupId);
+        } catch (RuntimeException e) {
+            return ExportResponses.badRequest(e.getMessage());
+        }
+        return ExportResponses.download("group-" + groupId + "-chores", exportFormat, gzip,
+                out -> exportService.writeChores(groupId, exportFormat, out));
+    }
+
+    // Same fields as a new chore; the assignee comes from assignedToId or, as the
+    // client sends the chore back as it received it, from assignedTo.id
     @PutMapping("/{id}")
-    public Chore updateChore(@PathVariable Long id, @RequestBody Chore chore) {
-        return choreService.updateChore(id, chore);
+    public ResponseEntity<?> updateChore(@PathVariable Long id, @RequestBody Map<String, Object> payload) {
+        Chore chore;
+        try {
+            chore = toChore(payload);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        Long assignedToId = parseId(payload.get("assignedToId"));
+        if (assignedToId == null && payload.get("assignedTo") instanceof Map) {
+            assignedToId = parseId(((Map<?, ?>) payload.get("assignedTo")).get("id"));
+        }
+        if (assignedToId != null) {
+            userRepository.findById(assignedToId).ifPresent(chore::setAssignedTo);
+        }
+        return ResponseEntity.ok(choreService.updateChore(id, chore));
     }
 
     @DeleteMapping("/{id}")
@@ -75,9 +208,71 @@ public class ChoreController {
     }
 
     @GetMapping("/group/{groupId}/fairness-scores")
-    public Map<Long, com.example.mzp.fairshare1.services.FairnessService.FairnessScore> getFairnessScores(
-            @PathVariable Long groupId) {
-        return fairnessService.calculateFairnessScores(groupId);
+    public ResponseEntity<Map<Long, com.example.mzp.fairshare1.services.FairnessService.FairnessScore>> getFairnessScores(
+            @PathVariable Long groupId, WebRequest request) {
+        // Daily: with a half-life set, scores drift as completed chores age
+        if (request.checkNotModified(groupVersionService.dailyEtag(groupId))) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache())
+                .body(fairnessService.calculateFairnessScores(groupId));
     }
 
+    private static Chore toChore(Map<?, ?> fields) {
+        Chore chore = new Chore();
+        chore.setTitle((String) fields.get("title"));
+        chore.setDescription((String) fields.get("description"));
+        chore.setDueDate(parseDate(fields.get("dueDate")));
+        chore.setDueTime(parseTime(fields.get("dueTime"), fields.get("dueDate")));
+        chore.setStatus((String) fields.get("status"));
+        chore.setWeight(parseInteger(fields.get("weight")));
+        return chore;
+    }
+
+    // Ids arrive as numbers or strings; anything unparseable counts as not given
+    private static Long parseId(Object value) {
+        if (value == null || value.toString().isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value.toString());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Integer parseInteger(Object value) {
+        Long number = parseId(value);
+        return number != null ? number.intValue() : null;
+    }
+
+    // yyyy-MM-dd, ignoring anything after the date (older clients sent "yyyy-MM-dd HH:mm");
+    // empty means no date, anything else is rejected rather than dropped
+    private static LocalDate parseDate(Object value) {
+        if (value == null || value.toString().isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value.toString().length() > 10 ? value.toString().substring(0, 10)
+                    : value.toString());
+        } catch (DateTimeParseException e) {
+            throw new RuntimeException("Invalid date '" + value + "', expected yyyy-MM-dd");
+        }
+    }
+
+    // HH:mm from dueTime, or from the time part of a combined "yyyy-MM-dd HH:mm" dueDate
+    private static LocalTime parseTime(Object value, Object dueDate) {
+        String time = value != null ? value.toString() : null;
+        if ((time == null || time.isEmpty()) && dueDate != null && dueDate.toString().length() >= 16) {
+            time = dueDate.toString().substring(11, 16);
+        }
+        if (time == null || time.isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalTime.parse(time);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
 }
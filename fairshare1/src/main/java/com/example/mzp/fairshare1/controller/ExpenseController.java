@@ -1,11 +1,21 @@
 package com.example.mzp.fairshare1.controller;
 
 import com.example.mzp.fairshare1.entity.Expense;
+import com.example.mzp.fairshare1.repositories.ExpenseRepository;
 import com.example.mzp.fairshare1.services.ExpenseService;
+import com.example.mzp.fairshare1.services.ExportService;
+import com.example.mzp.fairshare1.services.GroupVersionService;
+import com.example.mzp.fairshare1.services.ReferencedList;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.Map;
 
 @RestController
@@ -22,8 +32,17 @@ public class ExpenseController {
     @Autowired
     private com.example.mzp.fairshare1.repositories.UserRepository userRepository;
 
+    @Autowired
+    private com.example.mzp.fairshare1.services.SettlementService settlementService;
+
+    @Autowired
+    private GroupVersionService groupVersionService;
+
+    @Autowired
+    private ExportService exportService;
+
     @PostMapping("/group/{groupId}")
-    public Expense createExpense(@PathVariable Long groupId, @RequestBody Map<String, Object> payload) {
+    public ResponseEntity<?> createExpense(@PathVariable Long groupId, @RequestBody Map<String, Object> payload) {
         Expense expense = new Expense();
         expense.setTitle((String) payload.get("title"));
         expense.setDescription((String) payload.get("description"));
@@ -37,7 +56,11 @@ public class ExpenseController {
             expense.setAmount(Double.parseDouble((String) amountObj));
         }
 
-        expense.setDate((String) payload.get("date"));
+        try {
+            expense.setDate(parseDate(payload.get("date")));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
 
         if (payload.containsKey("isSplit")) {
             expense.setIsSplit((Boolean) payload.get("isSplit"));
@@ -61,15 +84,50 @@ public class ExpenseController {
             });
         }
 
-        return createdExpense;
+        return ResponseEntity.ok(createdExpense);
     }
 
     @GetMapping("/group/{groupId}")
-    public List<Expense> getGroupExpenses(@PathVariable Long groupId, @RequestParam(required = false) Long userId) {
-        if (userId != null) {
-            return expenseService.getGroupExpensesForUser(groupId, userId);
+    public ResponseEntity<?> getGroupExpenses(@PathVariable Long groupId,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            WebRequest request) {
+        if (request.checkNotModified(groupVersionService.etag(groupId))) {
+            return null;
+        }
+        try {
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache())
+                    .body(expenseService.getGroupExpenses(groupId, userId, from, to));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         }
-        return expenseService.getGroupExpenses(groupId);
+    }
+
+    // The group's expenses as a csv or ndjson download, optionally gzipped; with a
+    // userId, only what that user sees in the expense list
+    @GetMapping("/group/{groupId}/export")
+    public ResponseEntity<StreamingResponseBody> exportExpenses(@PathVariable Long groupId, @RequestParam(required = false) Long userId,
+            @RequestParam(defaultValue = "csv") String format, @RequestParam(defaultValue = "false") boolean gzip) {
+        ExportService.Format exportFormat;
+        try {
+            exportFormat = ExportService.Format.of(format);
+            exportService.checkGroup(groupId);
+        } catch (RuntimeException e) {
+            return ExportResponses.badRequest(e.getMessage());
+        }
+        return ExportResponses.download("group-" + groupId + "-expenses", exportFormat, gzip,
+                out -> exportService.writeExpenses(groupId, userId, exportFormat, out));
+    }
+
+    @GetMapping("/group/{groupId}/settlement")
+    public ResponseEntity<com.example.mzp.fairshare1.services.SettlementService.Settlement> getSettlement(
+            @PathVariable Long groupId, WebRequest request) {
+        if (request.checkNotModified(groupVersionService.etag(groupId))) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache())
+                .body(settlementService.getSettlement(groupId));
     }
 
     @DeleteMapping("/{id}")
@@ -78,7 +136,7 @@ public class ExpenseController {
     }
 
     @PutMapping("/{id}")
-    public Expense updateExpense(@PathVariable Long id, @RequestBody Map<String, Object> payload) {
+    public ResponseEntity<?> updateExpense(@PathVariable Long id, @RequestBody Map<String, Object> payload) {
         Expense updated = new Expense();
         updated.setTitle((String) payload.get("title"));
         updated.setDescription((String) payload.get("description"));
@@ -92,7 +150,11 @@ public class ExpenseController {
             updated.setAmount(Double.parseDouble((String) amountObj));
         }
 
-        updated.setDate((String) payload.get("date"));
+        try {
+            updated.setDate(parseDate(payload.get("date")));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
 
         if (payload.containsKey("isSplit")) {
             updated.setIsSplit((Boolean) payload.get("isSplit"));
@@ -111,6 +173,20 @@ public class ExpenseController {
             userRepository.findById(paidById).ifPresent(updated::setPaidBy);
         }
 
-        return expenseService.updateExpense(id, updated);
+        return ResponseEntity.ok(expenseService.updateExpense(id, updated));
+    }
+
+    // yyyy-MM-dd, ignoring anything after the date; empty means no date, anything
+    // else is rejected rather than dropped
+    private static LocalDate parseDate(Object value) {
+        if (value == null || value.toString().isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value.toString().length() > 10 ? value.toString().substring(0, 10)
+                    : value.toString());
+        } catch (DateTimeParseException e) {
+            throw new RuntimeException("Invalid date '" + value + "', expected yyyy-MM-dd");
+        }
     }
 }
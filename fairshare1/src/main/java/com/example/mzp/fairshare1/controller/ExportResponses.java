@@ -0,0 +1,62 @@
+package com.example.mzp.fairshare1.controller;
+
+import com.example.mzp.fairshare1.services.ExportService;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Download responses for the export endpoints. The body is written after the
+ * controller returns, on an MVC async thread, straight into the response.
+ */
+final class ExportResponses {
+
+    private static final int GZIP_BUFFER_SIZE = 8192;
+
+    interface Body {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private ExportResponses() {
+    }
+
+    /**
+     * An attachment named name.csv or name.ndjson, compressed on the fly into a .gz
+     * file when gzip is set
+     */
+    static ResponseEntity<StreamingResponseBody> download(String name, ExportService.Format format, boolean gzip,
+            Body body) {
+        String filename = name + "." + format.getExtension() + (gzip ? ".gz" : "");
+        MediaType contentType = gzip ? MediaType.parseMediaType("application/gzip")
+                : MediaType.parseMediaType(format.getContentType());
+        StreamingResponseBody stream = out -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(out, GZIP_BUFFER_SIZE);
+                body.writeTo(compressed);
+                compressed.finish();
+            } else {
+                body.writeTo(out);
+            }
+        };
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build()
+                        .toString())
+                .contentType(contentType)
+                .body(stream);
+    }
+
+    // Declared as a streaming body too: Spring only streams a ResponseEntity whose
+    // declared body type is StreamingResponseBody
+    static ResponseEntity<StreamingResponseBody> badRequest(String message) {
+        return ResponseEntity.badRequest()
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(out -> out.write(message.getBytes(StandardCharsets.UTF_8)));
+    }
+}
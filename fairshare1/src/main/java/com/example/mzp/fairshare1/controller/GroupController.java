@@ -3,11 +3,20 @@ package com.example.mzp.fairshare1.controller;
 import com.example.mzp.fairshare1.entity.Group;
 import com.example.mzp.fairshare1.entity.User;
 import com.example.mzp.fairshare1.repositories.UserRepository;
+import com.example.mzp.fairshare1.services.BudgetService;
+import com.example.mzp.fairshare1.services.DashboardService;
+import com.example.mzp.fairshare1.services.GroupPurger;
 import com.example.mzp.fairshare1.services.GroupService;
+import com.example.mzp.fairshare1.services.GroupVersionService;
+import com.example.mzp.fairshare1.services.SearchService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Map;
 
@@ -22,6 +31,21 @@ public class GroupController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private BudgetService budgetService;
+
+    @Autowired
+    private GroupVersionService groupVersionService;
+
+    @Autowired
+    private GroupPurger groupPurger;
+
+    @Autowired
+    private SearchService searchService;
+
     @PostMapping("/create")
     public ResponseEntity<?> createGroup(@RequestBody Map<String, Object> payload) {
         String name = (String) payload.get("name");
@@ -58,12 +82,45 @@ public class GroupController {
         return ResponseEntity.ok(groups);
     }
 
+    @GetMapping("/{groupId}/dashboard")
+    public ResponseEntity<?> getDashboard(@PathVariable Long groupId, @RequestParam(required = false) Long userId,
+            WebRequest request) {
+        if (request.checkNotModified(groupVersionService.dailyEtag(groupId))) {
+            return null;
+        }
+        try {
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache())
+                    .body(dashboardService.getDashboard(groupId, userId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Chores and expenses matching every word of q, best first; words match as prefixes
+    @GetMapping("/{groupId}/search")
+    public ResponseEntity<?> search(@PathVariable Long groupId, @RequestParam String q,
+            @RequestParam(required = false) Long userId, @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(searchService.search(groupId, userId, q, page, size));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @DeleteMapping("/{groupId}")
     public ResponseEntity<?> deleteGroup(@PathVariable Long groupId) {
         groupService.deleteGroup(groupId);
         return ResponseEntity.ok().build();
     }
 
+    // Progress of the background purge that follows a delete
+    @GetMapping("/{groupId}/purge")
+    public ResponseEntity<?> getPurgeProgress(@PathVariable Long groupId) {
+        GroupPurger.PurgeProgress progress = groupPurger.getProgress(groupId);
+        return progress != null ? ResponseEntity.ok(progress) : ResponseEntity.notFound().build();
+    }
+
     @PostMapping("/{groupId}/removeMember")
     public ResponseEntity<?> removeMember(@PathVariable Long groupId, @RequestBody Map<String, Long> payload) {
         Long userId = payload.get("userId");
@@ -100,6 +157,27 @@ public class GroupController {
         }
     }
 
+    // Spend against the budget for a month (yyyy-MM, default the current one)
+    @GetMapping("/{groupId}/budget")
+    public ResponseEntity<?> getBudget(@PathVariable Long groupId, @RequestParam(required = false) String month,
+            WebRequest request) {
+        YearMonth yearMonth;
+        try {
+            yearMonth = month != null ? YearMonth.parse(month) : YearMonth.now();
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body("Invalid month, expected yyyy-MM");
+        }
+        if (request.checkNotModified(groupVersionService.dailyEtag(groupId))) {
+            return null;
+        }
+        try {
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache())
+                    .body(budgetService.getBudget(groupId, yearMonth));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @PutMapping("/{groupId}/budget")
     public ResponseEntity<?> updateMonthlyBudget(@PathVariable Long groupId, @RequestBody Map<String, Object> payload) {
         Object budgetObj = payload.get("budget");
@@ -120,6 +198,23 @@ public class GroupController {
         }
     }
 
+    // Fairness model: {halfLifeDays}, null to count completed chores forever
+    @PutMapping("/{groupId}/fairness")
+    public ResponseEntity<?> updateFairnessModel(@PathVariable Long groupId, @RequestBody Map<String, Object> payload) {
+        Integer halfLifeDays;
+        try {
+            Object value = payload.get("halfLifeDays");
+            halfLifeDays = value != null && !value.toString().isEmpty() ? Integer.valueOf(value.toString()) : null;
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().body("Invalid half-life value");
+        }
+        try {
+            return ResponseEntity.ok(groupService.updateFairnessModel(groupId, halfLifeDays));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @PostMapping("/{groupId}/transfer-ownership")
     public ResponseEntity<?> transferOwnership(@PathVariable Long groupId, @RequestBody Map<String, Long> payload) {
         Long newOwnerId = payload.get("newOwnerId");
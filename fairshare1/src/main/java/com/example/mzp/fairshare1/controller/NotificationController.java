@@ -4,9 +4,13 @@ import com.example.mzp.fairshare1.entity.Notification;
 import com.example.mzp.fairshare1.entity.User;
 import com.example.mzp.fairshare1.repositories.UserRepository;
 import com.example.mzp.fairshare1.services.NotificationService;
+import com.example.mzp.fairshare1.services.NotificationStreamService;
+import com.example.mzp.fairshare1.services.NotificationWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Map;
@@ -22,6 +26,12 @@ public class NotificationController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private NotificationWriter notificationWriter;
+
+    @Autowired
+    private NotificationStreamService notificationStreamService;
+
     @PostMapping("/invite")
     public ResponseEntity<?> sendInvite(@RequestBody Map<String, Object> payload) {
         try {
@@ -51,6 +61,39 @@ public class NotificationController {
         }
     }
 
+    @GetMapping("/user/{userId}/inbox")
+    public ResponseEntity<?> getInbox(@PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + NotificationService.DEFAULT_INBOX_PAGE_SIZE) int limit,
+            @RequestParam(required = false) Notification.NotificationType type,
+            @RequestParam(required = false) Notification.NotificationStatus status) {
+        try {
+            return ResponseEntity.ok(notificationService.getInbox(userId, cursor, limit, type, status));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Server-Sent Events stream of new notifications. Browsers send Last-Event-ID on
+    // reconnect; the query parameter covers the first connection of a new page.
+    @GetMapping(path = "/stream/{userId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamNotifications(@PathVariable Long userId,
+            @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventIdHeader,
+            @RequestParam(required = false) Long lastEventId) {
+        return notificationStreamService.subscribe(userId,
+                lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
+    }
+
+    @GetMapping("/user/{userId}/unread-count")
+    public ResponseEntity<?> getUnreadCount(@PathVariable Long userId) {
+        return ResponseEntity.ok(Map.of("count", notificationService.getUnreadCount(userId)));
+    }
+
+    @GetMapping("/writer-stats")
+    public ResponseEntity<?> getWriterStats() {
+        return ResponseEntity.ok(notificationWriter.getStats());
+    }
+
     @PostMapping("/{id}/respond")
     public ResponseEntity<?> respondToInvite(@PathVariable Long id, @RequestBody Map<String, Boolean> payload) {
         try {
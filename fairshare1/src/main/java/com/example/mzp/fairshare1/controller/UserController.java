@@ -2,8 +2,21 @@ package com.example.mzp.fairshare1.controller;
 
 import com.example.mzp.fairshare1.entity.User;
 import com.example.mzp.fairshare1.repositories.UserRepository;
+import com.example.mzp.fairshare1.services.AvatarService;
+import com.example.mzp.fairshare1.services.GroupVersionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 
 @RestController
@@ -13,8 +26,15 @@ public class UserController {
 
     private final UserRepository userRepository;
 
-    public UserController(UserRepository userRepository) {
+    private final AvatarService avatarService;
+
+    private final GroupVersionService groupVersionService;
+
+    public UserController(UserRepository userRepository, AvatarService avatarService,
+            GroupVersionService groupVersionService) {
         this.userRepository = userRepository;
+        this.avatarService = avatarService;
+        this.groupVersionService = groupVersionService;
     }
 
     @GetMapping
@@ -52,8 +72,7 @@ public class UserController {
             user.setFullName(userDetails.getFullName());
         if (userDetails.getEmail() != null)
             user.setEmail(userDetails.getEmail());
-        if (userDetails.getProfilePicture() != null)
-            user.setProfilePicture(userDetails.getProfilePicture());
+        avatarService.updateAvatar(user, userDetails.getUploadedProfilePicture());
         if (userDetails.getBirthdate() != null)
             user.setBirthdate(userDetails.getBirthdate());
         if (userDetails.getGender() != null)
@@ -63,7 +82,54 @@ public class UserController {
         }
 
         User savedUser = userRepository.save(user);
+        // Names and avatars appear in every group list the user is part of
+        groupVersionService.bumpForMember(savedUser.getId());
         System.out.println("Saved user: " + savedUser);
         return savedUser;
     }
+
+    // Serves a stored avatar rendition (size <= 64 gets the thumbnail). Requests that
+    // carry the ?v= version from the user's profilePicture URL are cached for good.
+    @GetMapping("/{id}/avatar")
+    public void getAvatar(@PathVariable Long id,
+            @RequestParam(defaultValue = "256") int size,
+            @RequestParam(required = false) String v,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        Path file = avatarService.resolve(id, size);
+        if (file == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        long length = Files.size(file);
+        String etag = "\"" + Long.toHexString(Files.getLastModifiedTime(file).toMillis()) + "-"
+                + Long.toHexString(length) + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL,
+                v != null ? "public, max-age=31536000, immutable" : "no-cache");
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        response.setContentType(MediaType.IMAGE_JPEG_VALUE);
+        response.setContentLengthLong(length);
+
+        // Let Tomcat sendfile() the image when the connector supports it
+        if (Boolean.TRUE.equals(request.getAttribute("org.apache.tomcat.sendfile.support"))) {
+            request.setAttribute("org.apache.tomcat.sendfile.filename", file.toAbsolutePath().toString());
+            request.setAttribute("org.apache.tomcat.sendfile.start", 0L);
+            request.setAttribute("org.apache.tomcat.sendfile.end", length);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < length) {
+                position += channel.transferTo(position, length - position, out);
+            }
+        }
+    }
 }
@@ -1,9 +1,22 @@
 package com.example.mzp.fairshare1.entity;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
 import jakarta.persistence.*;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
 @Entity
-@Table(name = "chores")
+@NamedEntityGraph(name = "Chore.withAssigneeAndGroup", attributeNodes = {
+        @NamedAttributeNode("assignedTo"),
+        @NamedAttributeNode("group")
+})
+@Table(name = "chores", indexes = {
+        @Index(name = "idx_chores_group_assignee_status", columnList = "group_id, assigned_to_id, status"),
+        @Index(name = "idx_chores_group_due", columnList = "group_id, due_date")
+}, uniqueConstraints = @UniqueConstraint(name = "uk_chores_recurrence_due", columnNames = {
+        "recurrence_id", "due_date" }))
 public class Chore {
 
     @Id
@@ -16,22 +29,38 @@ public class Chore {
     private String description;
 
     @Column(name = "due_date")
-    private String dueDate;
+    private LocalDate dueDate;
+
+    // Optional time of day on the due date
+    @Column(name = "due_time")
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime dueTime;
 
     private String status; // e.g., "pending", "completed"
 
-    @ManyToOne
+    // Effort points, 1 for an ordinary chore; rows from before weights count as 1
+    private Integer weight;
+
+    // When the chore was last marked completed
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "assigned_to_id")
     private User assignedTo;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "group_id", nullable = false)
     private Group group;
 
+    // The ChoreRecurrence this chore was generated from, if any
+    @Column(name = "recurrence_id")
+    private Long recurrenceId;
+
     public Chore() {
     }
 
-    public Chore(String title, String description, String dueDate, String status, User assignedTo, Group group) {
+    public Chore(String title, String description, LocalDate dueDate, String status, User assignedTo, Group group) {
         this.title = title;
         this.description = description;
         this.dueDate = dueDate;
@@ -64,14 +93,22 @@ public class Chore {
         this.description = description;
     }
 
-    public String getDueDate() {
+    public LocalDate getDueDate() {
         return dueDate;
     }
 
-    public void setDueDate(String dueDate) {
+    public void setDueDate(LocalDate dueDate) {
         this.dueDate = dueDate;
     }
 
+    public LocalTime getDueTime() {
+        return dueTime;
+    }
+
+    public void setDueTime(LocalTime dueTime) {
+        this.dueTime = dueTime;
+    }
+
     public String getStatus() {
         return status;
     }
@@ -95,4 +132,28 @@ public class Chore {
     public void setGroup(Group group) {
         this.group = group;
     }
+
+    public Long getRecurrenceId() {
+        return recurrenceId;
+    }
+
+    public void setRecurrenceId(Long recurrenceId) {
+        this.recurrenceId = recurrenceId;
+    }
+
+    public Integer getWeight() {
+        return weight;
+    }
+
+    public void setWeight(Integer weight) {
+        this.weight = weight;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
 }
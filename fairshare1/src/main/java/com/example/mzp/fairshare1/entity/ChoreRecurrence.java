@@ -0,0 +1,170 @@
+package com.example.mzp.fairshare1.entity;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * A chore that repeats every intervalDays from startDate. The scheduler turns it
+ * into ordinary chores a few days ahead; generatedThrough is the last date it has
+ * already covered, so a restarted generator carries on from there.
+ */
+@Entity
+@Table(name = "chore_recurrences", indexes = {
+        @Index(name = "idx_chore_recurrences_generated", columnList = "active, generated_through, group_id"),
+        @Index(name = "idx_chore_recurrences_group", columnList = "group_id")
+})
+public class ChoreRecurrence {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "group_id", nullable = false)
+    private Long groupId;
+
+    @Column(nullable = false)
+    private String title;
+
+    private String description;
+
+    @Column(name = "due_time")
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime dueTime;
+
+    // Effort points given to each occurrence
+    private Integer weight;
+
+    // "daily", "weekly" or "custom"
+    @Column(nullable = false, length = 16)
+    private String frequency;
+
+    @Column(name = "interval_days", nullable = false)
+    private int intervalDays;
+
+    @Column(name = "start_date", nullable = false)
+    private LocalDate startDate;
+
+    // Last day an occurrence may fall on; open-ended when null
+    @Column(name = "end_date")
+    private LocalDate endDate;
+
+    // Fixed assignee; occurrences are assigned fairly when null
+    @Column(name = "assigned_to_id")
+    private Long assignedToId;
+
+    @Column(name = "generated_through")
+    private LocalDate generatedThrough;
+
+    @Column(nullable = false)
+    private boolean active = true;
+
+    public ChoreRecurrence() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getGroupId() {
+        return groupId;
+    }
+
+    public void setGroupId(Long groupId) {
+        this.groupId = groupId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public LocalTime getDueTime() {
+        return dueTime;
+    }
+
+    public void setDueTime(LocalTime dueTime) {
+        this.dueTime = dueTime;
+    }
+
+    public String getFrequency() {
+        return frequency;
+    }
+
+    public void setFrequency(String frequency) {
+        this.frequency = frequency;
+    }
+
+    public int getIntervalDays() {
+        return intervalDays;
+    }
+
+    public void setIntervalDays(int intervalDays) {
+        this.intervalDays = intervalDays;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public Long getAssignedToId() {
+        return assignedToId;
+    }
+
+    public void setAssignedToId(Long assignedToId) {
+        this.assignedToId = assignedToId;
+    }
+
+    public LocalDate getGeneratedThrough() {
+        return generatedThrough;
+    }
+
+    public void setGeneratedThrough(LocalDate generatedThrough) {
+        this.generatedThrough = generatedThrough;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+
+    public Integer getWeight() {
+        return weight;
+    }
+
+    public void setWeight(Integer weight) {
+        this.weight = weight;
+    }
+}
@@ -2,8 +2,16 @@ package com.example.mzp.fairshare1.entity;
 
 import jakarta.persistence.*;
 
+import java.time.LocalDate;
+
 @Entity
-@Table(name = "expenses")
+@NamedEntityGraph(name = "Expense.withPayerAndGroup", attributeNodes = {
+        @NamedAttributeNode("paidBy"),
+        @NamedAttributeNode("group")
+})
+@Table(name = "expenses", indexes = {
+        @Index(name = "idx_expenses_group_date", columnList = "group_id, date")
+})
 public class Expense {
 
     @Id
@@ -18,23 +26,23 @@ public class Expense {
     @Column(nullable = false)
     private Double amount;
 
-    private String date;
+    private LocalDate date;
 
     @Column(name = "split")
     private Boolean isSplit;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "paid_by_id")
     private User paidBy;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "group_id", nullable = false)
     private Group group;
 
     public Expense() {
     }
 
-    public Expense(String description, Double amount, String date, User paidBy, Group group) {
+    public Expense(String description, Double amount, LocalDate date, User paidBy, Group group) {
         this.description = description;
         this.amount = amount;
         this.date = date;
@@ -74,11 +82,11 @@ public class Expense {
         this.amount = amount;
     }
 
-    public String getDate() {
+    public LocalDate getDate() {
         return date;
     }
 
-    public void setDate(String date) {
+    public void setDate(LocalDate date) {
         this.date = date;
     }
 
@@ -1,11 +1,22 @@
 package com.example.mzp.fairshare1.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import org.hibernate.annotations.SQLRestriction;
+
+import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@NamedEntityGraph(name = "Group.withMembers", attributeNodes = {
+        @NamedAttributeNode("members"),
+        @NamedAttributeNode("owner")
+})
 @Table(name = "groups_table") // 'groups' is a reserved keyword in SQL
+// Deleted groups are hidden from every query until GroupPurger removes them
+@SQLRestriction("deleted_at IS NULL")
+@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" }) // lazy proxy internals
 public class Group {
 
     @Id
@@ -18,17 +29,30 @@ public class Group {
     @Column(unique = true, nullable = false)
     private String code;
 
-    @ManyToMany(fetch = FetchType.EAGER)
-    @JoinTable(name = "group_members", joinColumns = @JoinColumn(name = "group_id"), inverseJoinColumns = @JoinColumn(name = "user_id"))
+    @ManyToMany
+    @JoinTable(name = "group_members", joinColumns = @JoinColumn(name = "group_id"), inverseJoinColumns = @JoinColumn(name = "user_id"), indexes = @Index(name = "idx_group_members_user", columnList = "user_id"))
     private Set<User> members = new HashSet<>();
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "owner_id")
     private User owner;
 
     @Column(nullable = false)
     private Double monthlyBudget = 0.0;
 
+    // Bumped in the database by GroupVersionService on every change to the group's
+    // data; never written through the entity so a stale copy cannot roll it back
+    @Column(name = "data_version", insertable = false, updatable = false)
+    private Long dataVersion;
+
+    // Fairness model: completed chores count half as much after this many days.
+    // Null keeps every completed chore at full weight.
+    @Column(name = "fairness_half_life_days")
+    private Integer fairnessHalfLifeDays;
+
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
     public Group() {
     }
 
@@ -92,4 +116,20 @@ public class Group {
     public void setOwner(User owner) {
         this.owner = owner;
     }
+
+    public Integer getFairnessHalfLifeDays() {
+        return fairnessHalfLifeDays;
+    }
+
+    public void setFairnessHalfLifeDays(Integer fairnessHalfLifeDays) {
+        this.fairnessHalfLifeDays = fairnessHalfLifeDays;
+    }
+
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(LocalDateTime deletedAt) {
+        this.deletedAt = deletedAt;
+    }
 }
@@ -0,0 +1,80 @@
+package com.example.mzp.fairshare1.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Running total of a group's expenses for one calendar month, kept up to date as
+ * expenses change so budget checks never rescan the expenses table.
+ */
+@Entity
+@Table(name = "monthly_spend", uniqueConstraints = @UniqueConstraint(name = "uk_monthly_spend_group_month", columnNames = {
+        "group_id", "spend_month" }))
+public class MonthlySpend {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "group_id", nullable = false)
+    private Long groupId;
+
+    // yyyy-MM
+    @Column(name = "spend_month", nullable = false, length = 7)
+    private String month;
+
+    @Column(nullable = false)
+    private long totalCents;
+
+    // Highest budget threshold (percent) already announced for this month
+    @Column(nullable = false)
+    private int notifiedPercent;
+
+    public MonthlySpend() {
+    }
+
+    public MonthlySpend(Long groupId, String month, long totalCents) {
+        this.groupId = groupId;
+        this.month = month;
+        this.totalCents = totalCents;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getGroupId() {
+        return groupId;
+    }
+
+    public void setGroupId(Long groupId) {
+        this.groupId = groupId;
+    }
+
+    public String getMonth() {
+        return month;
+    }
+
+    public void setMonth(String month) {
+        this.month = month;
+    }
+
+    public long getTotalCents() {
+        return totalCents;
+    }
+
+    public void setTotalCents(long totalCents) {
+        this.totalCents = totalCents;
+    }
+
+    public int getNotifiedPercent() {
+        return notifiedPercent;
+    }
+
+    public void setNotifiedPercent(int notifiedPercent) {
+        this.notifiedPercent = notifiedPercent;
+    }
+}
@@ -2,30 +2,45 @@ package com.example.mzp.fairshare1.entity;
 
 import jakarta.persistence.*;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notifications")
+@NamedEntityGraph(name = "Notification.withSenderAndGroup", attributeNodes = {
+        @NamedAttributeNode("sender"),
+        @NamedAttributeNode(value = "group", subgraph = "group")
+}, subgraphs = @NamedSubgraph(name = "group", attributeNodes = {
+        @NamedAttributeNode("members"),
+        @NamedAttributeNode("owner")
+}))
+@Table(name = "notifications", indexes = {
+        @Index(name = "idx_notifications_recipient_read", columnList = "recipient_id, isRead"),
+        @Index(name = "idx_notifications_recipient_created", columnList = "recipient_id, createdAt, id"),
+        @Index(name = "idx_notifications_group", columnList = "group_id")
+})
 public class Notification {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "recipient_id", nullable = false)
     private User recipient;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "sender_id", nullable = false)
     private User sender;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "group_id")
     private Group group;
 
+    // VARCHAR rather than a native MySQL ENUM so new types need no ALTER TABLE
     @Enumerated(EnumType.STRING)
-    @Column(nullable = false)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(nullable = false, length = 32)
     private NotificationType type;
 
     @Enumerated(EnumType.STRING)
@@ -51,7 +66,8 @@ public class Notification {
     public enum NotificationType {
         GROUP_INVITE,
         CHORE_ASSIGNED,
-        EXPENSE_ADDED
+        EXPENSE_ADDED,
+        BUDGET_ALERT
     }
 
     public enum NotificationStatus {
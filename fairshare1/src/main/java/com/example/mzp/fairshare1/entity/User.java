@@ -3,11 +3,14 @@ package com.example.mzp.fairshare1.entity;
 import jakarta.persistence.*;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
 @Table(name = "users")
+@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" }) // lazy proxy internals
 public class User {
 
     @Id
@@ -23,7 +26,13 @@ public class User {
     @Column(nullable = false)
     private String password;
 
-    @Column(columnDefinition = "LONGTEXT")
+    // Avatars live on disk (see AvatarService); the row only keeps a content version
+    @Column(name = "avatar_version")
+    @JsonIgnore
+    private String avatarVersion;
+
+    // Incoming upload (data URL) or "" to remove; never persisted
+    @Transient
     private String profilePicture;
 
     @Column(name = "birthdate")
@@ -77,14 +86,29 @@ public class User {
         this.password = password;
     }
 
+    // Serialized as the URL of the avatar endpoint so clients can use it as an image source
+    @JsonProperty("profilePicture")
     public String getProfilePicture() {
-        return profilePicture;
+        return avatarVersion != null ? "/api/users/" + id + "/avatar?v=" + avatarVersion : null;
     }
 
     public void setProfilePicture(String profilePicture) {
         this.profilePicture = profilePicture;
     }
 
+    @JsonIgnore
+    public String getUploadedProfilePicture() {
+        return profilePicture;
+    }
+
+    public String getAvatarVersion() {
+        return avatarVersion;
+    }
+
+    public void setAvatarVersion(String avatarVersion) {
+        this.avatarVersion = avatarVersion;
+    }
+
     public String getBirthdate() {
         return birthdate;
     }
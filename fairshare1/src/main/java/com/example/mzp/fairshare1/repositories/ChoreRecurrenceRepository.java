@@ -0,0 +1,44 @@
+package com.example.mzp.fairshare1.repositories;
+
+import com.example.mzp.fairshare1.entity.ChoreRecurrence;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ChoreRecurrenceRepository extends JpaRepository<ChoreRecurrence, Long> {
+    List<ChoreRecurrence> findByGroupIdAndActiveTrueOrderById(Long groupId);
+
+    // Not yet generated up to the horizon, and not already generated past its end date
+    String BEHIND = "(r.generatedThrough IS NULL OR (r.generatedThrough < :horizon "
+            + "AND (r.endDate IS NULL OR r.endDate > r.generatedThrough)))";
+
+    // One page of groups with recurrences behind, keyed on the group id so each page
+    // picks up after the last one
+    @Query("SELECT DISTINCT r.groupId FROM ChoreRecurrence r WHERE r.active = true "
+            + "AND " + BEHIND + " AND r.groupId > :afterGroupId "
+            + "ORDER BY r.groupId")
+    List<Long> findGroupIdsBehind(@Param("horizon") LocalDate horizon, @Param("afterGroupId") Long afterGroupId,
+            Pageable page);
+
+    // Locked until the generating transaction commits, so two instances never both
+    // generate the same occurrences
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM ChoreRecurrence r WHERE r.groupId = :groupId AND r.active = true "
+            + "AND " + BEHIND + " ORDER BY r.id")
+    List<ChoreRecurrence> lockBehindByGroupId(@Param("groupId") Long groupId, @Param("horizon") LocalDate horizon);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ChoreRecurrence r SET r.active = false WHERE r.groupId = :groupId")
+    int deactivateByGroupId(@Param("groupId") Long groupId);
+}
@@ -1,15 +1,155 @@
 package com.example.mzp.fairshare1.repositories;
 
 import com.example.mzp.fairshare1.entity.Chore;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ChoreRepository extends JpaRepository<Chore, Long> {
+    // Rows per round trip for exports; MySQL needs useCursorFetch=true to honour it
+    String EXPORT_FETCH_SIZE = "500";
+
+    @EntityGraph("Chore.withAssigneeAndGroup")
     List<Chore> findByGroupId(Long groupId);
 
+    // List columns only; the assignee is referenced by id
+    String ROW_SELECT = "SELECT c.id AS id, c.title AS title, c.description AS description, c.dueDate AS dueDate, "
+            + "c.dueTime AS dueTime, c.status AS status, c.assignedTo.id AS assignedToId, c.group.id AS groupId, "
+            + "c.recurrenceId AS recurrenceId, c.weight AS weight, c.completedAt AS completedAt "
+            + "FROM Chore c ";
+
+    @Query(ROW_SELECT + "WHERE c.group.id = :groupId ORDER BY c.id")
+    List<ChoreRow> findRowsByGroupId(@Param("groupId") Long groupId);
+
+    // Primary key lookups for the chores a search matched
+    @Query(ROW_SELECT + "WHERE c.id IN :ids")
+    List<ChoreRow> findRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Range scan on idx_chores_group_due; chores without a due date are not included
+    @Query(ROW_SELECT + "WHERE c.group.id = :groupId AND c.dueDate BETWEEN :from AND :to "
+            + "ORDER BY c.dueDate, c.dueTime, c.id")
+    List<ChoreRow> findRowsByGroupIdAndDueDateBetween(@Param("groupId") Long groupId, @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+
+    // Every chore of a group for export, read EXPORT_FETCH_SIZE rows at a time. Must be
+    // consumed inside a transaction and closed.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query("SELECT c.id AS id, c.title AS title, c.description AS description, c.dueDate AS dueDate, "
+            + "c.dueTime AS dueTime, c.status AS status, c.weight AS weight, c.completedAt AS completedAt, "
+            + "a.id AS assignedToId, a.fullName AS assignedToName "
+            + "FROM Chore c LEFT JOIN c.assignedTo a WHERE c.group.id = :groupId ORDER BY c.id")
+    Stream<ChoreExportRow> streamExportByGroupId(@Param("groupId") Long groupId);
+
+    // Per-assignee chore counts and effort weights for a group, aggregated in the database.
+    // Anything not marked "completed" (including a missing status) counts as pending.
+    @Query("SELECT c.assignedTo.id AS assignedToId, "
+            + "SUM(CASE WHEN LOWER(c.status) = 'completed' THEN 1 ELSE 0 END) AS completedCount, "
+            + "SUM(CASE WHEN LOWER(c.status) = 'completed' THEN 0 ELSE 1 END) AS pendingCount, "
+            + "SUM(CASE WHEN LOWER(c.status) = 'completed' THEN COALESCE(c.weight, 1) ELSE 0 END) AS completedWeight, "
+            + "SUM(CASE WHEN LOWER(c.status) = 'completed' THEN 0 ELSE COALESCE(c.weight, 1) END) AS pendingWeight "
+            + "FROM Chore c WHERE c.group.id = :groupId AND c.assignedTo IS NOT NULL "
+            + "GROUP BY c.assignedTo.id")
+    List<AssigneeChoreCounts> countByAssignee(@Param("groupId") Long groupId);
+
+    // Completed effort per assignee and day since a cut-off, for decayed fairness scores.
+    // Older chores have decayed to nothing, so history before the cut-off is not read.
+    @Query("SELECT c.assignedTo.id AS assignedToId, YEAR(c.completedAt) AS year, MONTH(c.completedAt) AS month, "
+            + "DAY(c.completedAt) AS day, SUM(COALESCE(c.weight, 1)) AS weight "
+            + "FROM Chore c WHERE c.group.id = :groupId AND c.assignedTo IS NOT NULL "
+            + "AND LOWER(c.status) = 'completed' AND c.completedAt >= :since "
+            + "GROUP BY c.assignedTo.id, YEAR(c.completedAt), MONTH(c.completedAt), DAY(c.completedAt)")
+    List<DailyEffort> sumCompletedWeightByDay(@Param("groupId") Long groupId, @Param("since") LocalDateTime since);
+
+    // Upcoming occurrences of a stopped recurrence that nobody has done yet
     @Modifying
     @Transactional
-    void deleteByGroupId(Long groupId);
+    @Query("DELETE FROM Chore c WHERE c.recurrenceId = :recurrenceId AND c.dueDate >= :from "
+            + "AND (c.status IS NULL OR LOWER(c.status) <> 'completed')")
+    int deleteOpenOccurrences(@Param("recurrenceId") Long recurrenceId, @Param("from") LocalDate from);
+
+    interface ChoreRow {
+        Long getId();
+
+        String getTitle();
+
+        String getDescription();
+
+        LocalDate getDueDate();
+
+        @JsonFormat(pattern = "HH:mm")
+        LocalTime getDueTime();
+
+        String getStatus();
+
+        Long getAssignedToId();
+
+        Long getGroupId();
+
+        Long getRecurrenceId();
+
+        Integer getWeight();
+
+        LocalDateTime getCompletedAt();
+    }
+
+    interface ChoreExportRow {
+        Long getId();
+
+        String getTitle();
+
+        String getDescription();
+
+        LocalDate getDueDate();
+
+        @JsonFormat(pattern = "HH:mm")
+        LocalTime getDueTime();
+
+        String getStatus();
+
+        Integer getWeight();
+
+        LocalDateTime getCompletedAt();
+
+        Long getAssignedToId();
+
+        String getAssignedToName();
+    }
+
+    interface AssigneeChoreCounts {
+        Long getAssignedToId();
+
+        Long getCompletedCount();
+
+        Long getPendingCount();
+
+        Long getCompletedWeight();
+
+        Long getPendingWeight();
+    }
+
+    interface DailyEffort {
+        Long getAssignedToId();
+
+        Integer getYear();
+
+        Integer getMonth();
+
+        Integer getDay();
+
+        Long getWeight();
+    }
 }
@@ -1,19 +1,97 @@
 package com.example.mzp.fairshare1.repositories;
 
 import com.example.mzp.fairshare1.entity.Expense;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
-import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ExpenseRepository extends JpaRepository<Expense, Long> {
+    @EntityGraph("Expense.withPayerAndGroup")
     List<Expense> findByGroupId(Long groupId);
-    @org.springframework.data.jpa.repository.Query("SELECT e FROM Expense e WHERE e.group.id = :groupId AND (e.isSplit = true OR e.paidBy.id = :userId)")
-    List<Expense> findByGroupIdAndUserIdOrSplit(@Param("groupId") Long groupId,
-            @Param("userId") Long userId);
 
-    @Modifying
-    @Transactional
-    void deleteByGroupId(Long groupId);
+    // List columns only; the payer is referenced by id. With a userId, only split
+    // expenses and the ones that user paid.
+    String ROW_SELECT = "SELECT e.id AS id, e.title AS title, e.description AS description, "
+            + "e.amount AS amount, e.date AS date, e.isSplit AS isSplit, p.id AS paidById, e.group.id AS groupId "
+            + "FROM Expense e LEFT JOIN e.paidBy p ";
+
+    String USER_FILTER = "AND (:userId IS NULL OR e.isSplit = true OR p.id = :userId) ";
+
+    @org.springframework.data.jpa.repository.Query(ROW_SELECT + "WHERE e.group.id = :groupId " + USER_FILTER
+            + "ORDER BY e.id")
+    List<ExpenseRow> findRowsByGroupId(@Param("groupId") Long groupId, @Param("userId") Long userId);
+
+    // Primary key lookups for the expenses a search matched
+    @org.springframework.data.jpa.repository.Query(ROW_SELECT + "WHERE e.id IN :ids")
+    List<ExpenseRow> findRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Range scan on idx_expenses_group_date; expenses without a date are not included
+    @org.springframework.data.jpa.repository.Query(ROW_SELECT + "WHERE e.group.id = :groupId "
+            + "AND e.date BETWEEN :from AND :to " + USER_FILTER + "ORDER BY e.date, e.id")
+    List<ExpenseRow> findRowsByGroupIdAndDateBetween(@Param("groupId") Long groupId, @Param("userId") Long userId,
+            @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // A group's expenses for export, oldest first, read ChoreRepository.EXPORT_FETCH_SIZE
+    // rows at a time. Must be consumed inside a transaction and closed.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ChoreRepository.EXPORT_FETCH_SIZE))
+    @org.springframework.data.jpa.repository.Query("SELECT e.id AS id, e.date AS date, e.title AS title, "
+            + "e.description AS description, e.amount AS amount, e.isSplit AS isSplit, p.id AS paidById, "
+            + "p.fullName AS paidByName FROM Expense e LEFT JOIN e.paidBy p WHERE e.group.id = :groupId "
+            + USER_FILTER + "ORDER BY e.date, e.id")
+    Stream<ExpenseExportRow> streamExportByGroupId(@Param("groupId") Long groupId, @Param("userId") Long userId);
+
+    // Just the columns needed to compute balances, without the entity graph
+    @org.springframework.data.jpa.repository.Query("SELECT e.paidBy.id AS paidById, e.amount AS amount, e.isSplit AS isSplit FROM Expense e WHERE e.group.id = :groupId")
+    Stream<ExpenseShare> streamSharesByGroupId(@Param("groupId") Long groupId);
+
+    interface ExpenseRow {
+        Long getId();
+
+        String getTitle();
+
+        String getDescription();
+
+        Double getAmount();
+
+        LocalDate getDate();
+
+        Boolean getIsSplit();
+
+        Long getPaidById();
+
+        Long getGroupId();
+    }
+
+    interface ExpenseExportRow {
+        Long getId();
+
+        LocalDate getDate();
+
+        String getTitle();
+
+        String getDescription();
+
+        Double getAmount();
+
+        Boolean getIsSplit();
+
+        Long getPaidById();
+
+        String getPaidByName();
+    }
+
+    interface ExpenseShare {
+        Long getPaidById();
+
+        Double getAmount();
+
+        Boolean getIsSplit();
+    }
 }
\ No newline at end of file
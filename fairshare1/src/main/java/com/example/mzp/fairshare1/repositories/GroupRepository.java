@@ -1,12 +1,60 @@
 package com.example.mzp.fairshare1.repositories;
 
 import com.example.mzp.fairshare1.entity.Group;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface GroupRepository extends JpaRepository<Group, Long> {
     Optional<Group> findByCode(String code);
+
+    @EntityGraph("Group.withMembers")
+    @Query("SELECT g FROM Group g WHERE g.id = :id")
+    Optional<Group> findWithMembersById(@Param("id") Long id);
+
+    @EntityGraph("Group.withMembers")
+    List<Group> findByIdIn(Collection<Long> ids);
+
+    @Query("SELECT g.id FROM Group g ORDER BY g.id")
+    List<Long> findAllIds();
+
+    // Native so that codes still held by deleted, not yet purged groups are included
+    @Query(value = "SELECT code FROM groups_table", nativeQuery = true)
+    List<String> findAllCodes();
+
+    @Query(value = "SELECT COUNT(*) FROM groups_table WHERE code = :code", nativeQuery = true)
+    long countByCodeIncludingDeleted(@Param("code") String code);
+
+    // Deleted groups waiting for GroupPurger, oldest first; offset skips the ones a sweep leaves behind
+    @Query(value = "SELECT id FROM groups_table WHERE deleted_at IS NOT NULL ORDER BY deleted_at, id "
+            + "LIMIT :limit OFFSET :offset", nativeQuery = true)
+    List<Long> findDeletedIds(@Param("limit") int limit, @Param("offset") int offset);
+
+    @Query("SELECT g.dataVersion FROM Group g WHERE g.id = :id")
+    Optional<Long> findDataVersionById(@Param("id") Long id);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Group g SET g.dataVersion = COALESCE(g.dataVersion, 0) + 1 WHERE g.id = :id")
+    int incrementDataVersion(@Param("id") Long id);
+
+    // Native: MySQL cannot update groups_table from a subquery that also reads it
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE groups_table SET data_version = COALESCE(data_version, 0) + 1 "
+            + "WHERE id IN (SELECT group_id FROM group_members WHERE user_id = :userId)", nativeQuery = true)
+    int incrementDataVersionForMember(@Param("userId") Long userId);
+
+    // Ids of the groups a user belongs to, read from the group_members join table
+    @Query("SELECT g.id FROM Group g JOIN g.members m WHERE m.id = :userId")
+    List<Long> findGroupIdsByMemberId(@Param("userId") Long userId);
 }
@@ -0,0 +1,56 @@
+package com.example.mzp.fairshare1.repositories;
+
+import com.example.mzp.fairshare1.entity.MonthlySpend;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface MonthlySpendRepository extends JpaRepository<MonthlySpend, Long> {
+    Optional<MonthlySpend> findByGroupIdAndMonth(Long groupId, String month);
+
+    // Applied in the database so concurrent expense writes never lose an update. The
+    // month's row is created or added to in one statement: a duplicate-key insert
+    // cannot be retried inside the expense's transaction.
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO monthly_spend (group_id, spend_month, total_cents, notified_percent) "
+            + "VALUES (:groupId, :month, :delta, 0) ON DUPLICATE KEY UPDATE total_cents = total_cents + :delta",
+            nativeQuery = true)
+    int addToTotal(@Param("groupId") Long groupId, @Param("month") String month, @Param("delta") long delta);
+
+    // Returns 1 only for the caller that raised the mark, so each threshold is announced once
+    @Modifying
+    @Transactional
+    @Query("UPDATE MonthlySpend m SET m.notifiedPercent = :percent WHERE m.groupId = :groupId AND m.month = :month "
+            + "AND m.notifiedPercent < :percent")
+    int raiseNotifiedPercent(@Param("groupId") Long groupId, @Param("month") String month,
+            @Param("percent") int percent);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE MonthlySpend m SET m.notifiedPercent = 0 WHERE m.groupId = :groupId")
+    void resetNotifiedPercent(@Param("groupId") Long groupId);
+
+    // Expense totals per group and month, used once to seed an empty rollup table
+    @Query("SELECT e.group.id AS groupId, YEAR(e.date) AS year, MONTH(e.date) AS month, SUM(e.amount) AS total "
+            + "FROM Expense e WHERE e.date IS NOT NULL AND e.amount IS NOT NULL "
+            + "GROUP BY e.group.id, YEAR(e.date), MONTH(e.date)")
+    List<MonthTotal> sumExpensesByGroupAndMonth();
+
+    interface MonthTotal {
+        Long getGroupId();
+
+        Integer getYear();
+
+        Integer getMonth();
+
+        Double getTotal();
+    }
+}
@@ -2,20 +2,91 @@ package com.example.mzp.fairshare1.repositories;
 
 import com.example.mzp.fairshare1.entity.Notification;
 import com.example.mzp.fairshare1.entity.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
+    @EntityGraph("Notification.withSenderAndGroup")
     List<Notification> findByRecipientOrderByCreatedAtDesc(User recipient);
 
+    @EntityGraph("Notification.withSenderAndGroup")
     List<Notification> findByRecipientAndStatusOrderByCreatedAtDesc(User recipient,
             Notification.NotificationStatus status);
-    
-    // Delete notifications by group id (used when removing a group)
-    @org.springframework.data.jpa.repository.Modifying
-    @org.springframework.data.jpa.repository.Query("delete from Notification n where n.group.id = :groupId")
-    void deleteByGroupId(@org.springframework.data.repository.query.Param("groupId") Long groupId);
+
+    // Flat inbox rows: the notification plus sender and group names, no entity graph
+    String INBOX_SELECT = "select n.id as id, n.recipient.id as recipientId, n.type as type, n.status as status, n.isRead as isRead, "
+            + "n.message as message, n.createdAt as createdAt, s.id as senderId, s.fullName as senderName, "
+            + "g.id as groupId, g.name as groupName "
+            + "from Notification n join n.sender s left join n.group g ";
+
+    // Keyset pagination over a user's inbox, newest first. The first page has no
+    // cursor; later pages continue strictly after the last (createdAt, id) seen.
+    String INBOX_FILTER = "where n.recipient.id = :recipientId "
+            + "and (:type is null or n.type = :type) and (:status is null or n.status = :status) ";
+
+    @Query(INBOX_SELECT + INBOX_FILTER + "order by n.createdAt desc, n.id desc")
+    List<InboxItem> findInboxFirstPage(@Param("recipientId") Long recipientId,
+            @Param("type") Notification.NotificationType type,
+            @Param("status") Notification.NotificationStatus status,
+            Pageable limit);
+
+    @Query(INBOX_SELECT + INBOX_FILTER
+            + "and (n.createdAt < :createdAt or (n.createdAt = :createdAt and n.id < :id)) "
+            + "order by n.createdAt desc, n.id desc")
+    List<InboxItem> findInboxPageAfter(@Param("recipientId") Long recipientId,
+            @Param("type") Notification.NotificationType type,
+            @Param("status") Notification.NotificationStatus status,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable limit);
+
+    // Used to replay what a reconnecting stream client missed, oldest first
+    @Query(INBOX_SELECT + "where n.recipient.id = :recipientId and n.id > :afterId order by n.id asc")
+    List<InboxItem> findInboxItemsAfterId(@Param("recipientId") Long recipientId,
+            @Param("afterId") Long afterId, Pageable limit);
+
+    @Query(INBOX_SELECT + "where n.id in :ids order by n.id asc")
+    List<InboxItem> findInboxItemsByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select count(n) from Notification n where n.recipient.id = :recipientId and n.isRead = false")
+    long countUnreadByRecipientId(@Param("recipientId") Long recipientId);
+
+    // Single UPDATE marking every unread notification of a user as read
+    @Modifying
+    @Query("update Notification n set n.isRead = true where n.recipient.id = :recipientId and n.isRead = false")
+    int markAllReadByRecipientId(@Param("recipientId") Long recipientId);
+
+    interface InboxItem {
+        Long getId();
+
+        Long getRecipientId();
+
+        Notification.NotificationType getType();
+
+        Notification.NotificationStatus getStatus();
+
+        boolean getIsRead();
+
+        String getMessage();
+
+        LocalDateTime getCreatedAt();
+
+        Long getSenderId();
+
+        String getSenderName();
+
+        Long getGroupId();
+
+        String getGroupName();
+    }
 }
@@ -1,8 +1,35 @@
 package com.example.mzp.fairshare1.repositories;
 
 import com.example.mzp.fairshare1.entity.User;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     User findByEmail(String email);
-}
\ No newline at end of file
+
+    @Query("SELECT u.id AS id, u.fullName AS fullName, u.email AS email, u.avatarVersion AS avatarVersion "
+            + "FROM User u WHERE u.id IN :ids")
+    List<UserSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Public fields of a user referenced from list responses
+    interface UserSummary {
+        Long getId();
+
+        String getFullName();
+
+        String getEmail();
+
+        @JsonIgnore
+        String getAvatarVersion();
+
+        // Same URL as User.getProfilePicture()
+        default String getProfilePicture() {
+            return getAvatarVersion() != null ? "/api/users/" + getId() + "/avatar?v=" + getAvatarVersion() : null;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.mzp.fairshare1.services;
+
+import com.example.mzp.fairshare1.entity.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stores profile pictures as resized JPEG files on local disk instead of in the
+ * users table. Each upload is written once per thumbnail size; the user row only
+ * records a short content hash that doubles as the cache-busting version.
+ */
+@Service
+public class AvatarService {
+
+    private static final Logger log = LoggerFactory.getLogger(AvatarService.class);
+
+    // Largest edge in pixels of each stored rendition
+    public static final int LARGE = 256;
+    public static final int SMALL = 64;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${fairshare.avatars.dir:avatars}")
+    private String avatarDir;
+
+    /**
+     * Apply a profile picture change from a client. A data URL replaces the
+     * avatar, an empty string removes it, and anything else (such as the avatar
+     * URL echoed back by the client) leaves it unchanged.
+     */
+    public void updateAvatar(User user, String picture) {
+        if (picture == null) {
+            return;
+        }
+        if (picture.isEmpty()) {
+            deleteFiles(user.getId());
+            user.setAvatarVersion(null);
+        } else if (picture.startsWith("data:")) {
+            user.setAvatarVersion(store(user.getId(), decodeDataUrl(picture)));
+        }
+    }
+
+    /**
+     * Path of the stored rendition closest to the requested size, or null if the user has no avatar
+     */
+    public Path resolve(Long userId, int size) {
+        Path file = file(userId, size <= SMALL ? SMALL : LARGE);
+        return Files.isRegularFile(file) ? file : null;
+    }
+
+    private String store(Long userId, byte[] original) {
+        BufferedImage image;
+        try {
+            image = ImageIO.read(new ByteArrayInputStream(original));
+        } catch (IOException e) {
+            image = null;
+        }
+        if (image == null) {
+            throw new RuntimeException("Unsupported image format");
+        }
+
+        byte[] large = toJpeg(resize(image, LARGE));
+        byte[] small = toJpeg(resize(image, SMALL));
+        try {
+            Files.createDirectories(Paths.get(avatarDir));
+            write(file(userId, LARGE), large);
+            write(file(userId, SMALL), small);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store avatar", e);
+        }
+        return version(large);
+    }
+
+    /**
+     * Move pictures still held in the legacy users.profile_picture column onto
+     * disk, a few rows at a time, and clear the column.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateLegacyPictures() {
+        long lastId = 0;
+        int migrated = 0;
+        try {
+            while (true) {
+                List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                        "select id, profile_picture from users where id > ? and profile_picture is not null "
+                                + "order by id limit 20",
+                        lastId);
+                if (rows.isEmpty()) {
+                    break;
+                }
+                for (Map<String, Object> row : rows) {
+                    lastId = ((Number) row.get("id")).longValue();
+                    String picture = (String) row.get("profile_picture");
+                    String version = null;
+                    try {
+                        if (picture.startsWith("data:")) {
+                            version = store(lastId, decodeDataUrl(picture));
+                        }
+                    } catch (RuntimeException e) {
+                        log.warn("Dropping unreadable profile picture of user {}", lastId, e);
+                    }
+                    jdbcTemplate.update("update users set avatar_version = ?, profile_picture = null where id = ?",
+                            version, lastId);
+                    migrated++;
+                }
+            }
+        } catch (DataAccessException e) {
+            // No legacy column (fresh schema): nothing to migrate
+            return;
+        }
+        if (migrated > 0) {
+            log.info("Moved {} profile pictures to {}", migrated, avatarDir);
+        }
+    }
+
+    private Path file(Long userId, int size) {
+        return Paths.get(avatarDir, userId + "-" + size + ".jpg");
+    }
+
+    private void deleteFiles(Long userId) {
+        try {
+            Files.deleteIfExists(file(userId, LARGE));
+            Files.deleteIfExists(file(userId, SMALL));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not delete avatar", e);
+        }
+    }
+
+    // Write to a temporary file first so readers never see a half-written image
+    private static void write(Path target, byte[] bytes) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), "avatar", ".tmp");
+        Files.write(temp, bytes);
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static byte[] decodeDataUrl(String dataUrl) {
+        int comma = dataUrl.indexOf(',');
+        if (comma < 0 || !dataUrl.substring(0, comma).endsWith(";base64")) {
+            throw new RuntimeException("Profile picture must be a base64 data URL");
+        }
+        try {
+            return Base64.getMimeDecoder().decode(dataUrl.substring(comma + 1));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Profile picture must be a base64 data URL");
+        }
+    }
+
+    // Scale down to fit within size x size, flattening transparency onto white for JPEG
+    private static BufferedImage resize(BufferedImage source, int size) {
+        double scale = Math.min(1.0, (double) size / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private static byte[] toJpeg(BufferedImage image) {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(0.85f);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not encode avatar", e);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static String version(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
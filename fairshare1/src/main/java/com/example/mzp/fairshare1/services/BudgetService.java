@@ -0,0 +1,254 @@
+package com.example.mzp.fairshare1.services;
+
+import com.example.mzp.fairshare1.entity.Expense;
+import com.example.mzp.fairshare1.entity.Group;
+import com.example.mzp.fairshare1.entity.MonthlySpend;
+import com.example.mzp.fairshare1.entity.User;
+import com.example.mzp.fairshare1.repositories.GroupRepository;
+import com.example.mzp.fairshare1.repositories.MonthlySpendRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Tracks each group's spend per calendar month in the monthly_spend rollup.
+ * ExpenseService reports every change as a delta in the expense's own transaction,
+ * so reading the budget or checking an alert threshold costs one row lookup however
+ * many expenses the group has, and the rollup commits or rolls back with the expense.
+ */
+@Service
+public class BudgetService implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(BudgetService.class);
+
+    @Autowired
+    private MonthlySpendRepository monthlySpendRepository;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    @Lazy
+    private NotificationService notificationService;
+
+    // Percentages of the monthly budget that raise a notification when first reached
+    @Value("${fairshare.budget.alert-thresholds:50,80,100}")
+    private int[] alertThresholds;
+
+    public void onExpenseCreated(Expense expense) {
+        record(expense.getGroup(), monthOf(expense.getDate()), cents(expense.getAmount()), expense.getPaidBy());
+    }
+
+    /**
+     * Move an edited expense's amount between months as needed
+     */
+    public void onExpenseUpdated(LocalDate previousDate, Double previousAmount, Expense expense) {
+        String before = monthOf(previousDate);
+        String after = monthOf(expense.getDate());
+        if (Objects.equals(before, after)) {
+            record(expense.getGroup(), after, cents(expense.getAmount()) - cents(previousAmount), expense.getPaidBy());
+        } else {
+            record(expense.getGroup(), before, -cents(previousAmount), null);
+            record(expense.getGroup(), after, cents(expense.getAmount()), expense.getPaidBy());
+        }
+    }
+
+    public void onExpenseDeleted(Expense expense) {
+        record(expense.getGroup(), monthOf(expense.getDate()), -cents(expense.getAmount()), null);
+    }
+
+    /**
+     * A new budget re-arms the alerts: thresholds are percentages of the new amount
+     */
+    public void onBudgetChanged(Long groupId) {
+        monthlySpendRepository.resetNotifiedPercent(groupId);
+    }
+
+    public BudgetStatus getBudget(Long groupId, YearMonth month) {
+        Group group = groupRepository.findById(groupId)
+                .orElseThrow(() -> new RuntimeException("Group not found"));
+        return getBudget(group, month);
+    }
+
+    public BudgetStatus getBudget(Group group, YearMonth month) {
+        long spentCents = monthlySpendRepository.findByGroupIdAndMonth(group.getId(), month.toString())
+                .map(MonthlySpend::getTotalCents)
+                .orElse(0L);
+        double budget = group.getMonthlyBudget() != null ? group.getMonthlyBudget() : 0.0;
+        return BudgetStatus.of(month, budget, spentCents / 100.0, LocalDate.now());
+    }
+
+    /**
+     * Seed the rollup from existing expenses the first time it is empty (for example
+     * right after upgrading an existing database). Runs once every bean is created and
+     * before the web server starts, so no expense write can race the seed.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        seedRollups();
+    }
+
+    void seedRollups() {
+        try {
+            if (monthlySpendRepository.count() > 0) {
+                return;
+            }
+            List<MonthlySpend> rows = monthlySpendRepository.sumExpensesByGroupAndMonth().stream()
+                    .map(total -> new MonthlySpend(total.getGroupId(),
+                            YearMonth.of(total.getYear(), total.getMonth()).toString(), cents(total.getTotal())))
+                    .collect(Collectors.toList());
+            monthlySpendRepository.saveAll(rows);
+            if (!rows.isEmpty()) {
+                log.info("Seeded {} monthly spend rollups from existing expenses", rows.size());
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not seed monthly spend rollups: {}", e.getMessage());
+        }
+    }
+
+    private void record(Group group, String month, long deltaCents, User actor) {
+        if (group == null || month == null || deltaCents == 0) {
+            return;
+        }
+        monthlySpendRepository.addToTotal(group.getId(), month, deltaCents);
+        if (deltaCents > 0) {
+            checkThresholds(group, month, actor);
+        }
+    }
+
+    private void checkThresholds(Group group, String month, User actor) {
+        double budget = group.getMonthlyBudget() != null ? group.getMonthlyBudget() : 0.0;
+        if (budget <= 0) {
+            return;
+        }
+        MonthlySpend spend = monthlySpendRepository.findByGroupIdAndMonth(group.getId(), month).orElse(null);
+        if (spend == null) {
+            return;
+        }
+        int reached = highestThresholdReached(spend.getTotalCents(), cents(budget), alertThresholds);
+        if (reached > spend.getNotifiedPercent()
+                && monthlySpendRepository.raiseNotifiedPercent(group.getId(), month, reached) == 1) {
+            // The raised mark rolls back with the expense; announce it only once committed
+            Runnable alert = () -> notificationService.sendBudgetAlert(group.getId(), actor, month, reached,
+                    spend.getTotalCents() / 100.0, budget);
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        alert.run();
+                    }
+                });
+            } else {
+                alert.run();
+            }
+        }
+    }
+
+    static int highestThresholdReached(long spentCents, long budgetCents, int[] thresholds) {
+        if (budgetCents <= 0) {
+            return 0;
+        }
+        return Arrays.stream(thresholds)
+                .filter(percent -> spentCents * 100 >= percent * budgetCents)
+                .max()
+                .orElse(0);
+    }
+
+    // yyyy-MM of a date, or null if there is no date
+    static String monthOf(LocalDate date) {
+        return date != null ? YearMonth.from(date).toString() : null;
+    }
+
+    private static long cents(Double amount) {
+        return amount != null ? Math.round(amount * 100) : 0;
+    }
+
+    /**
+     * Spend against the monthly budget, with a straight-line projection to month end
+     */
+    public static class BudgetStatus {
+        private final String month;
+        private final double monthlyBudget;
+        private final double spent;
+        private final double remaining;
+        private final double percentUsed;
+        private final double dailyBurn;
+        private final double projectedSpend;
+        private final double projectedRemaining;
+
+        public BudgetStatus(String month, double monthlyBudget, double spent, double remaining, double percentUsed,
+                double dailyBurn, double projectedSpend, double projectedRemaining) {
+            this.month = month;
+            this.monthlyBudget = monthlyBudget;
+            this.spent = spent;
+            this.remaining = remaining;
+            this.percentUsed = percentUsed;
+            this.dailyBurn = dailyBurn;
+            this.projectedSpend = projectedSpend;
+            this.projectedRemaining = projectedRemaining;
+        }
+
+        static BudgetStatus of(YearMonth month, double budget, double spent, LocalDate today) {
+            // Days of the month that have passed: all of them for past months, none for future ones
+            int elapsedDays;
+            if (month.isBefore(YearMonth.from(today))) {
+                elapsedDays = month.lengthOfMonth();
+            } else if (month.isAfter(YearMonth.from(today))) {
+                elapsedDays = 0;
+            } else {
+                elapsedDays = today.getDayOfMonth();
+            }
+            double dailyBurn = elapsedDays > 0 ? spent / elapsedDays : 0.0;
+            double projected = elapsedDays > 0 ? dailyBurn * month.lengthOfMonth() : spent;
+            double percentUsed = budget > 0 ? spent * 100 / budget : 0.0;
+            return new BudgetStatus(month.toString(), budget, spent, budget - spent, percentUsed, dailyBurn,
+                    projected, budget - projected);
+        }
+
+        public String getMonth() {
+            return month;
+        }
+
+        public double getMonthlyBudget() {
+            return monthlyBudget;
+        }
+
+        public double getSpent() {
+            return spent;
+        }
+
+        public double getRemaining() {
+            return remaining;
+        }
+
+        public double getPercentUsed() {
+            return percentUsed;
+        }
+
+        public double getDailyBurn() {
+            return dailyBurn;
+        }
+
+        public double getProjectedSpend() {
+            return projectedSpend;
+        }
+
+        public double getProjectedRemaining() {
+            return projectedRemaining;
+        }
+    }
+}
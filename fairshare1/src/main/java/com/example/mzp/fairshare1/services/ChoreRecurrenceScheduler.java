@@ -0,0 +1,68 @@
+package com.example.mzp.fairshare1.services;
+
+import com.example.mzp.fairshare1.repositories.ChoreRecurrenceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Keeps every group's recurring chores generated up to the horizon. Groups are
+ * read a page at a time and each is generated in its own transaction, so a run
+ * holds one page of ids and one group's occurrences in memory however many groups
+ * there are, and a group that fails is retried on the next run without holding
+ * up the others.
+ */
+@Component
+public class ChoreRecurrenceScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(ChoreRecurrenceScheduler.class);
+
+    @Autowired
+    private ChoreRecurrenceRepository recurrenceRepository;
+
+    @Autowired
+    private ChoreRecurrenceService recurrenceService;
+
+    @Value("${fairshare.recurrence.groups-per-page:100}")
+    private int groupsPerPage;
+
+    @Scheduled(initialDelayString = "${fairshare.recurrence.initial-delay-ms:60000}",
+            fixedDelayString = "${fairshare.recurrence.run-interval-ms:3600000}")
+    public void run() {
+        generateUpTo(recurrenceService.horizon());
+    }
+
+    /**
+     * Returns the number of chores created
+     */
+    public int generateUpTo(LocalDate horizon) {
+        int created = 0;
+        Long afterGroupId = 0L;
+        List<Long> groupIds;
+        do {
+            groupIds = recurrenceRepository.findGroupIdsBehind(horizon, afterGroupId, PageRequest.of(0, groupsPerPage));
+            for (Long groupId : groupIds) {
+                try {
+                    created += recurrenceService.generateForGroup(groupId, horizon);
+                } catch (RuntimeException e) {
+                    // Rolled back; ChoreService gives back what the occurrences charged
+                    log.warn("Could not generate recurring chores for group {}: {}", groupId, e.getMessage());
+                }
+            }
+            if (!groupIds.isEmpty()) {
+                afterGroupId = groupIds.get(groupIds.size() - 1);
+            }
+        } while (groupIds.size() == groupsPerPage);
+        if (created > 0) {
+            log.info("Generated {} recurring chores up to {}", created, horizon);
+        }
+        return created;
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.mzp.fairshare1.services;
+
+import com.example.mzp.fairshare1.entity.Chore;
+import com.example.mzp.fairshare1.entity.ChoreRecurrence;
+import com.example.mzp.fairshare1.entity.Group;
+import com.example.mzp.fairshare1.entity.User;
+import com.example.mzp.fairshare1.repositories.ChoreRecurrenceRepository;
+import com.example.mzp.fairshare1.repositories.ChoreRepository;
+import com.example.mzp.fairshare1.repositories.GroupRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Recurring chores. Occurrences are generated as ordinary chores up to a rolling
+ * horizon (today plus fairshare.recurrence.horizon-days) by ChoreRecurrenceScheduler,
+ * and right away when a recurrence is created.
+ */
+@Service
+public class ChoreRecurrenceService {
+
+    private static final int MAX_INTERVAL_DAYS = 365;
+
+    // Matches what ChoreService.createChores accepts in one call
+    private static final int CHUNK_SIZE = 500;
+
+    // Dated occurrences first, then by time of day; all-day chores sort before timed ones
+    private static final Comparator<Chore> CHRONOLOGICAL = Comparator.comparing(Chore::getDueDate)
+            .thenComparing(Chore::getDueTime, Comparator.nullsFirst(Comparator.<LocalTime>naturalOrder()));
+
+    @Autowired
+    private ChoreRecurrenceRepository recurrenceRepository;
+
+    @Autowired
+    private ChoreRepository choreRepository;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private ChoreService choreService;
+
+    @Autowired
+    private FairnessService fairnessService;
+
+    @Autowired
+    private GroupVersionService groupVersionService;
+
+    @Autowired
+    private SearchService searchService;
+
+    @Value("${fairshare.recurrence.horizon-days:14}")
+    private int horizonDays;
+
+    @Transactional
+    public ChoreRecurrence createRecurrence(Long groupId, ChoreRecurrence recurrence) {
+        Group group = groupRepository.findById(groupId)
+                .orElseThrow(() -> new RuntimeException("Group not found"));
+        if (recurrence.getTitle() == null || recurrence.getTitle().isBlank()) {
+            throw new RuntimeException("Title is required");
+        }
+        recurrence.setIntervalDays(intervalDays(recurrence.getFrequency(), recurrence.getIntervalDays()));
+        recurrence.setFrequency(recurrence.getFrequency().toLowerCase());
+        if (recurrence.getStartDate() == null) {
+            recurrence.setStartDate(LocalDate.now());
+        }
+        if (recurrence.getEndDate() != null && recurrence.getEndDate().isBefore(recurrence.getStartDate())) {
+            throw new RuntimeException("End date must not be before the start date");
+        }
+        if (recurrence.getAssignedToId() != null && !memberIds(group).contains(recurrence.getAssignedToId())) {
+            throw new RuntimeException("User is not a member of this group");
+        }
+        recurrence.setGroupId(groupId);
+        recurrence.setGeneratedThrough(null);
+        recurrence.setActive(true);
+        ChoreRecurrence saved = recurrenceRepository.save(recurrence);
+
+        generateForGroup(groupId, horizon());
+        return saved;
+    }
+
+    public List<ChoreRecurrence> getGroupRecurrences(Long groupId) {
+        return recurrenceRepository.findByGroupIdAndActiveTrueOrderById(groupId);
+    }
+
+    /**
+     * Stop generating a recurrence and remove its upcoming occurrences that are not
+     * completed yet; past and completed ones stay in the chore history.
+     */
+    @Transactional
+    public void stopRecurrence(Long id) {
+        ChoreRecurrence recurrence = recurrenceRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Recurring chore not found"));
+        recurrence.setActive(false);
+        recurrenceRepository.save(recurrence);
+        if (choreRepository.deleteOpenOccurrences(id, LocalDate.now()) > 0) {
+            Long groupId = recurrence.getGroupId();
+            fairnessService.evictGroup(groupId);
+            searchService.evictGroup(groupId);
+            // Again once committed, in case a rebuild in between still read the deleted rows
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    fairnessService.evictGroup(groupId);
+                    searchService.evictGroup(groupId);
+                }
+            });
+        }
+        groupVersionService.bump(recurrence.getGroupId());
+    }
+
+    public LocalDate horizon() {
+        return LocalDate.now().plusDays(horizonDays);
+    }
+
+    /**
+     * Create the missing occurrences of a group's recurrences up to the horizon, and
+     * move their generatedThrough marks in the same transaction: a run that fails
+     * or is cut short leaves nothing half done and the next one starts over from
+     * the marks. Occurrences without a fixed assignee are spread over the group in
+     * date order, starting from the current fairness scores.
+     * Returns the number of chores created.
+     */
+    @Transactional
+    public int generateForGroup(Long groupId, LocalDate horizon) {
+        List<ChoreRecurrence> recurrences = recurrenceRepository.lockBehindByGroupId(groupId, horizon);
+        if (recurrences.isEmpty()) {
+            return 0;
+        }
+        Group group = groupRepository.findById(groupId)
+                .orElseThrow(() -> new RuntimeException("Group not found"));
+        Set<Long> memberIds = memberIds(group);
+        LocalDate today = LocalDate.now();
+
+        List<Chore> occurrences = new ArrayList<>();
+        // A fixed assignee who has since left the group falls back to fair assignment
+        Map<Long, Long> fixedAssignees = new HashMap<>();
+        for (ChoreRecurrence recurrence : recurrences) {
+            if (recurrence.getAssignedToId() != null && memberIds.contains(recurrence.getAssignedToId())) {
+                fixedAssignees.put(recurrence.getId(), recurrence.getAssignedToId());
+            }
+            // Occurrences missed while the generator was not running are skipped, not backfilled
+            LocalDate from = recurrence.getGeneratedThrough() != null ? recurrence.getGeneratedThrough().plusDays(1)
+                    : recurrence.getStartDate();
+            if (from.isBefore(today)) {
+                from = today;
+            }
+            LocalDate until = recurrence.getEndDate() != null && recurrence.getEndDate().isBefore(horizon)
+                    ? recurrence.getEndDate() : horizon;
+            for (LocalDate date = firstOnOrAfter(recurrence, from); !date.isAfter(until);
+                    date = date.plusDays(recurrence.getIntervalDays())) {
+                occurrences.add(occurrence(recurrence, date));
+            }
+            recurrence.setGeneratedThrough(horizon);
+        }
+        recurrenceRepository.saveAll(recurrences);
+
+        occurrences.sort(CHRONOLOGICAL);
+        for (int start = 0; start < occurrences.size(); start += CHUNK_SIZE) {
+            List<Chore> chunk = occurrences.subList(start, Math.min(start + CHUNK_SIZE, occurrences.size()));
+            List<Long> assignedToIds = chunk.stream()
+                    .map(chore -> fixedAssignees.get(chore.getRecurrenceId()))
+                    .collect(Collectors.toList());
+            choreService.createChores(groupId, new ArrayList<>(chunk), assignedToIds, true);
+        }
+        return occurrences.size();
+    }
+
+    // Daily and weekly imply their interval; custom takes 1 to 365 days
+    private static int intervalDays(String frequency, int intervalDays) {
+        if (frequency == null) {
+            throw new RuntimeException("Frequency is required");
+        }
+        switch (frequency.toLowerCase()) {
+            case "daily":
+                return 1;
+            case "weekly":
+                return 7;
+            case "custom":
+                if (intervalDays < 1 || intervalDays > MAX_INTERVAL_DAYS) {
+                    throw new RuntimeException("Interval must be between 1 and " + MAX_INTERVAL_DAYS + " days");
+                }
+                return intervalDays;
+            default:
+                throw new RuntimeException("Frequency must be daily, weekly or custom");
+        }
+    }
+
+    // First date on the recurrence's cycle (startDate + n * interval) that is not before from
+    private static LocalDate firstOnOrAfter(ChoreRecurrence recurrence, LocalDate from) {
+        LocalDate start = recurrence.getStartDate();
+        if (!from.isAfter(start)) {
+            return start;
+        }
+        long interval = recurrence.getIntervalDays();
+        long cycles = (ChronoUnit.DAYS.between(start, from) + interval - 1) / interval;
+        return start.plusDays(cycles * interval);
+    }
+
+    private static Chore occurrence(ChoreRecurrence recurrence, LocalDate date) {
+        Chore chore = new Chore(recurrence.getTitle(), recurrence.getDescription(), date, "pending", null, null);
+        chore.setDueTime(recurrence.getDueTime());
+        chore.setWeight(recurrence.getWeight());
+        chore.setRecurrenceId(recurrence.getId());
+        return chore;
+    }
+
+    private static Set<Long> memberIds(Group group) {
+        return group.getMembers().stream().map(User::getId).collect(Collectors.toSet());
+    }
+}
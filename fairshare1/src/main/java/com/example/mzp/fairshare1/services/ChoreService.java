@@ -7,9 +7,28 @@ import com.example.mzp.fairshare1.repositories.ChoreRepository;
 import com.example.mzp.fairshare1.repositories.GroupRepository;
 import com.example.mzp.fairshare1.repositories.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ChoreService {
@@ -26,50 +45,263 @@ public class ChoreService {
     @Autowired
     private FairnessService fairnessService;
 
+    @Autowired
+    private GroupVersionService groupVersionService;
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private static final int MAX_BULK_CHORES = 500;
+
+    private static final int MAX_WEIGHT = 10;
+
+    private static final String INSERT_SQL = "insert into chores "
+            + "(title, description, due_date, due_time, status, assigned_to_id, group_id, recurrence_id, "
+            + "weight, completed_at) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
     public Chore createChore(Chore chore, Long groupId, Long assignedToId, boolean useFairAssignment) {
         Group group = groupRepository.findById(groupId)
                 .orElseThrow(() -> new RuntimeException("Group not found"));
         chore.setGroup(group);
+        prepare(chore);
 
-        // Use fair assignment if requested and no specific user is assigned
+        // Use fair assignment if requested and no specific user is assigned. The pick is
+        // charged immediately so concurrent requests spread over the group.
+        FairnessService.Reservation reservation = null;
         if (useFairAssignment && (assignedToId == null || assignedToId == 0)) {
-            Long fairestMemberId = fairnessService.selectFairestMember(groupId);
-            if (fairestMemberId != null) {
-                assignedToId = fairestMemberId;
+            reservation = fairnessService.reserveFairestMember(groupId, chore);
+            if (reservation != null) {
+                assignedToId = reservation.getUserId();
             }
         }
 
-        if (assignedToId != null) {
-            User user = userRepository.findById(assignedToId)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-            chore.setAssignedTo(user);
+        Chore saved;
+        try {
+            if (assignedToId != null) {
+                User user = userRepository.findById(assignedToId)
+                        .orElseThrow(() -> new RuntimeException("User not found"));
+                chore.setAssignedTo(user);
+            }
+            saved = choreRepository.save(chore);
+        } catch (RuntimeException e) {
+            fairnessService.release(reservation);
+            throw e;
+        }
+        FairnessService.Reservation charged = reservation;
+        onCompletion(groupId, () -> {
+            fairnessService.onChoreCreated(saved, charged);
+            searchService.onChoreSaved(saved);
+        }, () -> fairnessService.release(charged));
+        groupVersionService.bump(groupId);
+        return saved;
+    }
+
+    /**
+     * Create several chores in one transaction, e.g. a week's plan. Chores whose
+     * assignedToIds entry is empty are spread over the group as one batch when
+     * useFairAssignment is set; the rows are written with a single batched insert.
+     */
+    @Transactional
+    public List<Chore> createChores(Long groupId, List<Chore> chores, List<Long> assignedToIds,
+            boolean useFairAssignment) {
+        if (chores.size() > MAX_BULK_CHORES) {
+            throw new RuntimeException("At most " + MAX_BULK_CHORES + " chores can be created at once");
+        }
+        if (chores.stream().anyMatch(chore -> chore.getTitle() == null || chore.getTitle().isBlank())) {
+            throw new RuntimeException("Every chore needs a title");
+        }
+        chores.forEach(this::prepare);
+        Group group = groupRepository.findById(groupId)
+                .orElseThrow(() -> new RuntimeException("Group not found"));
+
+        List<Long> assigneeIds = new ArrayList<>(assignedToIds);
+        List<Integer> fairIndexes = new ArrayList<>();
+        List<Chore> fairChores = new ArrayList<>();
+        for (int i = 0; i < chores.size(); i++) {
+            Long assignedToId = assigneeIds.get(i);
+            if (useFairAssignment && (assignedToId == null || assignedToId == 0)) {
+                fairIndexes.add(i);
+                fairChores.add(chores.get(i));
+            }
+        }
+        List<FairnessService.Reservation> reservations = fairIndexes.isEmpty() ? List.of()
+                : fairnessService.reserveFairestMembers(groupId, fairChores);
+
+        try {
+            for (int i = 0; i < reservations.size(); i++) {
+                assigneeIds.set(fairIndexes.get(i), reservations.get(i).getUserId());
+            }
+            Map<Long, User> users = userRepository.findAllById(assigneeIds.stream()
+                    .filter(Objects::nonNull).collect(Collectors.toSet())).stream()
+                    .collect(Collectors.toMap(User::getId, Function.identity()));
+            for (int i = 0; i < chores.size(); i++) {
+                Chore chore = chores.get(i);
+                chore.setGroup(group);
+                Long assignedToId = assigneeIds.get(i);
+                if (assignedToId != null) {
+                    User user = users.get(assignedToId);
+                    if (user == null) {
+                        throw new RuntimeException("User not found");
+                    }
+                    chore.setAssignedTo(user);
+                }
+            }
+            insertAll(chores);
+        } catch (RuntimeException e) {
+            fairnessService.release(reservations);
+            throw e;
         }
 
-        return choreRepository.save(chore);
+        Map<Integer, FairnessService.Reservation> reserved = new HashMap<>();
+        for (int i = 0; i < reservations.size(); i++) {
+            reserved.put(fairIndexes.get(i), reservations.get(i));
+        }
+        onCompletion(groupId, () -> {
+            for (int i = 0; i < chores.size(); i++) {
+                fairnessService.onChoreCreated(chores.get(i), reserved.get(i));
+                searchService.onChoreSaved(chores.get(i));
+            }
+        }, () -> fairnessService.release(reservations));
+        groupVersionService.bump(groupId);
+        return chores;
     }
 
-    public List<Chore> getGroupChores(Long groupId) {
-        return choreRepository.findByGroupId(groupId);
+    /**
+     * Chores of a group, optionally only those due within [from, to]
+     */
+    public ReferencedList<ChoreRepository.ChoreRow> getGroupChores(Long groupId, LocalDate from, LocalDate to) {
+        DateRange range = DateRange.of(from, to);
+        List<ChoreRepository.ChoreRow> rows = range == null ? choreRepository.findRowsByGroupId(groupId)
+                : choreRepository.findRowsByGroupIdAndDueDateBetween(groupId, range.getFrom(), range.getTo());
+        return ReferencedList.of(rows, ChoreRepository.ChoreRow::getAssignedToId, userRepository);
     }
 
     public Chore updateChore(Long id, Chore choreDetails) {
         Chore chore = choreRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Chore not found"));
 
+        FairnessService.ChoreLoad previous = FairnessService.ChoreLoad.of(chore);
+        boolean wasCompleted = isCompleted(chore);
+
         chore.setTitle(choreDetails.getTitle());
         chore.setDescription(choreDetails.getDescription());
         chore.setDueDate(choreDetails.getDueDate());
+        chore.setDueTime(choreDetails.getDueTime());
         chore.setStatus(choreDetails.getStatus());
+        if (choreDetails.getWeight() != null) {
+            chore.setWeight(checkedWeight(choreDetails.getWeight()));
+        }
+        if (!isCompleted(chore)) {
+            chore.setCompletedAt(null);
+        } else if (!wasCompleted || chore.getCompletedAt() == null) {
+            chore.setCompletedAt(LocalDateTime.now());
+        }
 
         if (choreDetails.getAssignedTo() != null) {
             chore.setAssignedTo(choreDetails.getAssignedTo());
         }
 
-        return choreRepository.save(chore);
+        Chore saved = choreRepository.save(chore);
+        fairnessService.onChoreUpdated(previous, saved);
+        searchService.onChoreSaved(saved);
+        groupVersionService.bump(saved.getGroup().getId());
+        return saved;
+    }
+
+    // New chores reach the scoreboard and search index only once they are committed.
+    // Fair picks are charged before that so concurrent requests spread; if the rows are
+    // rolled back, here or in a caller's transaction, the charges are given back. When
+    // the outcome of the commit is unknown both caches are dropped and rebuilt.
+    private void onCompletion(Long groupId, Runnable committed, Runnable rolledBack) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            committed.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                committed.run();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    rolledBack.run();
+                } else if (status == STATUS_UNKNOWN) {
+                    rolledBack.run();
+                    fairnessService.evictGroup(groupId);
+                    searchService.evictGroup(groupId);
+                }
+            }
+        });
+    }
+
+    // One JDBC batch with generated keys: Hibernate cannot batch IDENTITY inserts
+    private void insertAll(List<Chore> chores) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Chore chore = chores.get(i);
+                        ps.setString(1, chore.getTitle());
+                        ps.setString(2, chore.getDescription());
+                        ps.setObject(3, chore.getDueDate());
+                        ps.setObject(4, chore.getDueTime());
+                        ps.setString(5, chore.getStatus());
+                        if (chore.getAssignedTo() != null) {
+                            ps.setLong(6, chore.getAssignedTo().getId());
+                        } else {
+                            ps.setNull(6, Types.BIGINT);
+                        }
+                        ps.setLong(7, chore.getGroup().getId());
+                        ps.setObject(8, chore.getRecurrenceId(), Types.BIGINT);
+                        ps.setInt(9, chore.getWeight());
+                        ps.setObject(10, chore.getCompletedAt());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return chores.size();
+                    }
+                },
+                keys);
+
+        List<Map<String, Object>> keyList = keys.getKeyList();
+        for (int i = 0; i < chores.size() && i < keyList.size(); i++) {
+            Object id = keyList.get(i).values().iterator().next();
+            chores.get(i).setId(((Number) id).longValue());
+        }
+    }
+
+    // Defaults a new chore's weight and stamps its completion time if it starts out completed
+    private void prepare(Chore chore) {
+        chore.setWeight(chore.getWeight() != null ? checkedWeight(chore.getWeight()) : 1);
+        chore.setCompletedAt(isCompleted(chore) ? LocalDateTime.now() : null);
+    }
+
+    private static int checkedWeight(int weight) {
+        if (weight < 1 || weight > MAX_WEIGHT) {
+            throw new RuntimeException("Weight must be between 1 and " + MAX_WEIGHT);
+        }
+        return weight;
+    }
+
+    private static boolean isCompleted(Chore chore) {
+        return "completed".equalsIgnoreCase(chore.getStatus());
     }
 
     public void deleteChore(Long id) {
-        choreRepository.deleteById(id);
+        choreRepository.findById(id).ifPresent(chore -> {
+            choreRepository.delete(chore);
+            fairnessService.onChoreDeleted(chore);
+            searchService.onChoreDeleted(chore);
+            groupVersionService.bump(chore.getGroup().getId());
+        });
     }
 
 }
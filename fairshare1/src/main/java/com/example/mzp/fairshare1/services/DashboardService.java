@@ -0,0 +1,177 @@
+package com.example.mzp.fairshare1.services;
+
+import com.example.mzp.fairshare1.entity.Group;
+import com.example.mzp.fairshare1.entity.User;
+import com.example.mzp.fairshare1.repositories.ChoreRepository;
+import com.example.mzp.fairshare1.repositories.ExpenseRepository;
+import com.example.mzp.fairshare1.repositories.GroupRepository;
+import com.example.mzp.fairshare1.repositories.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.YearMonth;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+public class DashboardService {
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private ChoreRepository choreRepository;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FairnessService fairnessService;
+
+    @Autowired
+    private BudgetService budgetService;
+
+    /**
+     * Everything the frontend shows for a selected group, read in one transaction.
+     * The group and its members are fetched once and handed to the fairness lookup.
+     * The group is sent as a summary and chores and expenses as list rows; the owner,
+     * members and every user they reference are sent once in the users table. When
+     * userId is given, expenses are limited to split ones and the user's own, as in
+     * ExpenseService.
+     */
+    @Transactional(readOnly = true)
+    public GroupDashboard getDashboard(Long groupId, Long userId) {
+        Group group = groupRepository.findWithMembersById(groupId)
+                .orElseThrow(() -> new RuntimeException("Group not found"));
+
+        List<ChoreRepository.ChoreRow> chores = choreRepository.findRowsByGroupId(groupId);
+        List<ExpenseRepository.ExpenseRow> expenses = expenseRepository.findRowsByGroupId(groupId, userId);
+        Map<Long, FairnessService.FairnessScore> fairnessScores = fairnessService.calculateFairnessScores(group);
+
+        GroupSummary summary = GroupSummary.of(group);
+        Set<Long> userIds = new HashSet<>(summary.getMemberIds());
+        userIds.add(summary.getOwnerId());
+        chores.forEach(chore -> userIds.add(chore.getAssignedToId()));
+        expenses.forEach(expense -> userIds.add(expense.getPaidById()));
+        userIds.remove(null);
+
+        return new GroupDashboard(summary, chores, expenses, ReferencedList.loadUsers(userIds, userRepository),
+                fairnessScores, budgetService.getBudget(group, YearMonth.now()));
+    }
+
+    /**
+     * Aggregate response for GET /api/groups/{groupId}/dashboard
+     */
+    public static class GroupDashboard {
+        private final GroupSummary group;
+        private final List<ChoreRepository.ChoreRow> chores;
+        private final List<ExpenseRepository.ExpenseRow> expenses;
+        private final Map<Long, UserRepository.UserSummary> users;
+        private final Map<Long, FairnessService.FairnessScore> fairnessScores;
+        private final BudgetService.BudgetStatus budget;
+
+        public GroupDashboard(GroupSummary group, List<ChoreRepository.ChoreRow> chores,
+                List<ExpenseRepository.ExpenseRow> expenses, Map<Long, UserRepository.UserSummary> users,
+                Map<Long, FairnessService.FairnessScore> fairnessScores, BudgetService.BudgetStatus budget) {
+            this.group = group;
+            this.chores = chores;
+            this.expenses = expenses;
+            this.users = users;
+            this.fairnessScores = fairnessScores;
+            this.budget = budget;
+        }
+
+        public GroupSummary getGroup() {
+            return group;
+        }
+
+        public List<ChoreRepository.ChoreRow> getChores() {
+            return chores;
+        }
+
+        public List<ExpenseRepository.ExpenseRow> getExpenses() {
+            return expenses;
+        }
+
+        public Map<Long, UserRepository.UserSummary> getUsers() {
+            return users;
+        }
+
+        public Map<Long, FairnessService.FairnessScore> getFairnessScores() {
+            return fairnessScores;
+        }
+
+        public BudgetService.BudgetStatus getBudget() {
+            return budget;
+        }
+    }
+
+    /**
+     * The group's own fields; its owner and members are referenced by id
+     */
+    public static class GroupSummary {
+        private final Long id;
+        private final String name;
+        private final String code;
+        private final Double monthlyBudget;
+        private final Integer fairnessHalfLifeDays;
+        private final Long ownerId;
+        private final List<Long> memberIds;
+
+        public GroupSummary(Long id, String name, String code, Double monthlyBudget, Integer fairnessHalfLifeDays,
+                Long ownerId, List<Long> memberIds) {
+            this.id = id;
+            this.name = name;
+            this.code = code;
+            this.monthlyBudget = monthlyBudget;
+            this.fairnessHalfLifeDays = fairnessHalfLifeDays;
+            this.ownerId = ownerId;
+            this.memberIds = memberIds;
+        }
+
+        public static GroupSummary of(Group group) {
+            List<Long> memberIds = group.getMembers().stream()
+                    .map(User::getId)
+                    .sorted()
+                    .collect(Collectors.toList());
+            Long ownerId = group.getOwner() != null ? group.getOwner().getId() : null;
+            return new GroupSummary(group.getId(), group.getName(), group.getCode(), group.getMonthlyBudget(),
+                    group.getFairnessHalfLifeDays(), ownerId, memberIds);
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getCode() {
+            return code;
+        }
+
+        public Double getMonthlyBudget() {
+            return monthlyBudget;
+        }
+
+        public Integer getFairnessHalfLifeDays() {
+            return fairnessHalfLifeDays;
+        }
+
+        public Long getOwnerId() {
+            return ownerId;
+        }
+
+        public List<Long> getMemberIds() {
+            return memberIds;
+        }
+    }
+}
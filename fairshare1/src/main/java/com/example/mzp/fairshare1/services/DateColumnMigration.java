@@ -0,0 +1,102 @@
+package com.example.mzp.fairshare1.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts chores.due_date and expenses.date from the old free-text columns to DATE.
+ * ddl-auto=update adds new columns but never changes the type of an existing one, so
+ * databases created before the switch are migrated here once. The time of day that
+ * chores used to keep in due_date ("yyyy-MM-dd HH:mm") moves to due_time; values that
+ * are not a valid date are logged and cleared.
+ * <p>
+ * Runs before the EntityManagerFactory is built, so Hibernate, the startup readers
+ * (e.g. the budget rollup seed) and the first requests only ever see DATE columns.
+ */
+@Component
+public class DateColumnMigration implements InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(DateColumnMigration.class);
+
+    private static final String DATE_PATTERN = "^[0-9]{4}-[0-9]{2}-[0-9]{2}";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterPropertiesSet() {
+        migrate();
+    }
+
+    public void migrate() {
+        try {
+            if (isText("chores", "due_date")) {
+                // Hibernate has not added due_time yet on a database this old
+                if (!exists("chores", "due_time")) {
+                    jdbcTemplate.execute("alter table chores add column due_time time null");
+                }
+                jdbcTemplate.update("update chores set due_time = substring(due_date, 12, 5) "
+                        + "where due_time is null and due_date regexp '" + DATE_PATTERN + " [0-9]{2}:[0-9]{2}' "
+                        + "and str_to_date(substring(due_date, 12, 5), '%H:%i') is not null");
+                convert("chores", "due_date");
+            }
+            if (isText("expenses", "date")) {
+                convert("expenses", "date");
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not migrate date columns: {}", e.getMessage());
+        }
+    }
+
+    private boolean isText(String table, String column) {
+        List<String> types = dataTypes(table, column);
+        return types.size() == 1 && (types.get(0).toLowerCase().contains("char")
+                || types.get(0).toLowerCase().contains("text"));
+    }
+
+    private boolean exists(String table, String column) {
+        return !dataTypes(table, column).isEmpty();
+    }
+
+    private List<String> dataTypes(String table, String column) {
+        return jdbcTemplate.queryForList("select data_type from information_schema.columns "
+                + "where table_schema = database() and table_name = ? and column_name = ?",
+                String.class, table, column);
+    }
+
+    private void convert(String table, String column) {
+        // The pattern alone lets through impossible dates such as 2025-02-30
+        String invalid = column + " is not null and (" + column + " not regexp '" + DATE_PATTERN + "' "
+                + "or str_to_date(left(" + column + ", 10), '%Y-%m-%d') is null)";
+        List<Map<String, Object>> cleared = jdbcTemplate.queryForList(
+                "select id, " + column + " as value from " + table + " where " + invalid);
+        for (Map<String, Object> row : cleared) {
+            log.warn("Clearing {}.{} of row {}: '{}' is not a date", table, column, row.get("id"), row.get("value"));
+        }
+        jdbcTemplate.update("update " + table + " set " + column + " = null where " + invalid);
+        jdbcTemplate.update("update " + table + " set " + column + " = left(" + column + ", 10) "
+                + "where " + column + " is not null");
+        jdbcTemplate.execute("alter table " + table + " modify column " + column + " date null");
+        log.info("Changed {}.{} to DATE, cleared {} invalid values", table, column, cleared.size());
+    }
+
+    /**
+     * Makes the EntityManagerFactory wait for the migration
+     */
+    @Component
+    static class EntityManagerFactoryDependsOnDateColumnMigration extends EntityManagerFactoryDependsOnPostProcessor {
+
+        EntityManagerFactoryDependsOnDateColumnMigration() {
+            super(DateColumnMigration.class);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.mzp.fairshare1.services;
+
+import java.time.LocalDate;
+
+/**
+ * Optional from/to filter for the chore and expense lists. Missing ends are
+ * filled with the limits of a MySQL DATE so one BETWEEN query covers every case.
+ */
+public final class DateRange {
+
+    private static final LocalDate EARLIEST = LocalDate.of(1000, 1, 1);
+    private static final LocalDate LATEST = LocalDate.of(9999, 12, 31);
+
+    private final LocalDate from;
+    private final LocalDate to;
+
+    private DateRange(LocalDate from, LocalDate to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Null when neither end is given, meaning no date filter (undated rows included)
+     */
+    public static DateRange of(LocalDate from, LocalDate to) {
+        if (from == null && to == null) {
+            return null;
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new RuntimeException("'from' must not be after 'to'");
+        }
+        return new DateRange(from != null ? from : EARLIEST, to != null ? to : LATEST);
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+}
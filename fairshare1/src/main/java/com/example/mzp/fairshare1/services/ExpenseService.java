@@ -8,7 +8,11 @@ import com.example.mzp.fairshare1.repositories.GroupRepository;
 import com.example.mzp.fairshare1.repositories.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @Service
@@ -23,6 +27,23 @@ public class ExpenseService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private SettlementService settlementService;
+
+    @Autowired
+    private BudgetService budgetService;
+
+    @Autowired
+    private GroupVersionService groupVersionService;
+
+    @Autowired
+    private SearchService searchService;
+
+    /**
+     * Saves the expense and its monthly spend delta in one transaction; the cached
+     * settlement and the search index follow once it commits
+     */
+    @Transactional
     public Expense createExpense(Expense expense, Long groupId, Long paidById) {
         Group group = groupRepository.findById(groupId)
                 .orElseThrow(() -> new RuntimeException("Group not found"));
@@ -34,24 +55,47 @@ public class ExpenseService {
             expense.setPaidBy(user);
         }
 
-        return expenseRepository.save(expense);
-    }
-
-    public List<Expense> getGroupExpenses(Long groupId) {
-        return expenseRepository.findByGroupId(groupId);
+        Expense saved = expenseRepository.save(expense);
+        budgetService.onExpenseCreated(saved);
+        groupVersionService.bump(groupId);
+        afterCommit(() -> {
+            settlementService.evictGroup(groupId);
+            searchService.onExpenseSaved(saved);
+        });
+        return saved;
     }
 
-    public List<Expense> getGroupExpensesForUser(Long groupId, Long userId) {
-        return expenseRepository.findByGroupIdAndUserIdOrSplit(groupId, userId);
+    /**
+     * Expenses of a group, optionally dated within [from, to]; with a userId, only
+     * split expenses and the ones that user paid
+     */
+    public ReferencedList<ExpenseRepository.ExpenseRow> getGroupExpenses(Long groupId, Long userId, LocalDate from,
+            LocalDate to) {
+        DateRange range = DateRange.of(from, to);
+        List<ExpenseRepository.ExpenseRow> rows = range == null ? expenseRepository.findRowsByGroupId(groupId, userId)
+                : expenseRepository.findRowsByGroupIdAndDateBetween(groupId, userId, range.getFrom(), range.getTo());
+        return ReferencedList.of(rows, ExpenseRepository.ExpenseRow::getPaidById, userRepository);
     }
 
+    @Transactional
     public void deleteExpense(Long id) {
-        expenseRepository.deleteById(id);
+        expenseRepository.findById(id).ifPresent(expense -> {
+            expenseRepository.delete(expense);
+            budgetService.onExpenseDeleted(expense);
+            groupVersionService.bump(expense.getGroup().getId());
+            afterCommit(() -> {
+                settlementService.evictGroup(expense.getGroup().getId());
+                searchService.onExpenseDeleted(expense);
+            });
+        });
     }
 
+    @Transactional
     public Expense updateExpense(Long id, Expense updated) {
         Expense existing = expenseRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Expense not found"));
+        LocalDate previousDate = existing.getDate();
+        Double previousAmount = existing.getAmount();
 
         if (updated.getTitle() != null)
             existing.setTitle(updated.getTitle());
@@ -66,6 +110,27 @@ public class ExpenseService {
         if (updated.getIsSplit() != null)
             existing.setIsSplit(updated.getIsSplit());
 
-        return expenseRepository.save(existing);
+        Expense saved = expenseRepository.save(existing);
+        budgetService.onExpenseUpdated(previousDate, previousAmount, saved);
+        groupVersionService.bump(saved.getGroup().getId());
+        afterCommit(() -> {
+            settlementService.evictGroup(saved.getGroup().getId());
+            searchService.onExpenseSaved(saved);
+        });
+        return saved;
+    }
+
+    // Caches must not be rebuilt from, or hear of, a change that may still roll back
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 }
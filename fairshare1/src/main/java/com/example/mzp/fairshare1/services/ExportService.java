@@ -0,0 +1,165 @@
+package com.example.mzp.fairshare1.services;
+
+import com.example.mzp.fairshare1.repositories.ChoreRepository;
+import com.example.mzp.fairshare1.repositories.ExpenseRepository;
+import com.example.mzp.fairshare1.repositories.GroupRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Writes a group's expenses or chores as CSV or NDJSON. Rows are read from a
+ * database cursor and written one at a time, so an export of any length needs
+ * the same small amount of heap.
+ */
+@Service
+public class ExportService {
+
+    private static final String[] EXPENSE_HEADER = { "id", "date", "title", "description", "amount", "split",
+            "paid_by_id", "paid_by" };
+
+    private static final String[] CHORE_HEADER = { "id", "title", "description", "due_date", "due_time", "status",
+            "weight", "completed_at", "assigned_to_id", "assigned_to" };
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private ChoreRepository choreRepository;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public enum Format {
+        CSV("csv", "text/csv;charset=UTF-8"),
+        NDJSON("ndjson", "application/x-ndjson");
+
+        private final String extension;
+        private final String contentType;
+
+        Format(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+
+        public static Format of(String name) {
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(name)) {
+                    return format;
+                }
+            }
+            throw new RuntimeException("Format must be csv or ndjson");
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+    }
+
+    /**
+     * Checked before the response starts; once rows are being written an error can
+     * no longer be reported as a status code
+     */
+    public void checkGroup(Long groupId) {
+        if (!groupRepository.existsById(groupId)) {
+            throw new RuntimeException("Group not found");
+        }
+    }
+
+    /**
+     * A group's expenses, oldest first; with a userId only split expenses and the
+     * ones that user paid, as in the expense list
+     */
+    @Transactional(readOnly = true)
+    public void writeExpenses(Long groupId, Long userId, Format format, OutputStream out) throws IOException {
+        try (Stream<ExpenseRepository.ExpenseExportRow> rows = expenseRepository.streamExportByGroupId(groupId,
+                userId)) {
+            write(rows, format, EXPENSE_HEADER, row -> new Object[] { row.getId(), row.getDate(), text(row.getTitle()),
+                    text(row.getDescription()), amount(row.getAmount()), Boolean.TRUE.equals(row.getIsSplit()),
+                    row.getPaidById(), text(row.getPaidByName()) }, out);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void writeChores(Long groupId, Format format, OutputStream out) throws IOException {
+        try (Stream<ChoreRepository.ChoreExportRow> rows = choreRepository.streamExportByGroupId(groupId)) {
+            write(rows, format, CHORE_HEADER, row -> new Object[] { row.getId(), text(row.getTitle()),
+                    text(row.getDescription()), row.getDueDate(), row.getDueTime(), text(row.getStatus()),
+                    row.getWeight(), row.getCompletedAt(), row.getAssignedToId(), text(row.getAssignedToName()) },
+                    out);
+        }
+    }
+
+    private <T> void write(Stream<T> rows, Format format, String[] header, Function<T, Object[]> columns,
+            OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            writeCsvLine(writer, header);
+        }
+        Iterator<T> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            T row = iterator.next();
+            if (format == Format.CSV) {
+                writeCsvLine(writer, columns.apply(row));
+            } else {
+                writer.write(objectMapper.writeValueAsString(row));
+                writer.write('\n');
+            }
+        }
+        writer.flush();
+    }
+
+    private static void writeCsvLine(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                writer.write(csv(values[i].toString()));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    // Quoted when it holds a separator, quote or line break (RFC 4180)
+    static String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    // User-entered text starting like a formula is prefixed with a quote so that a
+    // spreadsheet opening the file shows it instead of evaluating it
+    static String text(String value) {
+        if (value == null || value.isEmpty()) {
+            return value;
+        }
+        char first = value.charAt(0);
+        return first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r'
+                ? "'" + value : value;
+    }
+
+    private static String amount(Double amount) {
+        return amount != null ? String.format(Locale.ROOT, "%.2f", amount) : null;
+    }
+}
@@ -5,58 +5,103 @@ import com.example.mzp.fairshare1.entity.Group;
 import com.example.mzp.fairshare1.entity.User;
 import com.example.mzp.fairshare1.repositories.ChoreRepository;
 import com.example.mzp.fairshare1.repositories.GroupRepository;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Service
 public class FairnessService {
 
+    private static final int COMPLETED_POINTS = 10;
+    private static final int PENDING_POINTS = 20;
+
+    // Completed chores older than this many half-lives add less than 2^-30 of their
+    // weight and are not read when a decayed scoreboard is built
+    private static final int DECAY_WINDOW_HALF_LIVES = 30;
+
+    // Builds discarded because chores kept changing under them before one is used uncached
+    private static final int MAX_BUILD_ATTEMPTS = 3;
+
     @Autowired
     private ChoreRepository choreRepository;
 
     @Autowired
     private GroupRepository groupRepository;
 
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Scoreboards are built from what is committed when the build starts, not from the
+    // snapshot of a transaction the caller may have opened earlier
+    private TransactionTemplate buildTransaction;
+
+    private Clock clock = Clock.systemDefaultZone();
+
+    // Highest score first; the score is capped, so ties go to less pending effort and
+    // then the lower user id to keep repeated picks spread over the group
+    private static final Comparator<FairnessScore> FAIREST = Comparator.comparingInt(FairnessScore::getScore)
+            .thenComparing(Comparator.comparingInt(FairnessScore::getPendingWeight).reversed())
+            .thenComparing(Comparator.comparing(FairnessScore::getUserId).reversed());
+
+    // Per-group pending/completed tallies, keyed by group id. Built lazily from grouped
+    // queries on first use and kept current by ChoreService afterwards.
+    private final Map<Long, Scoreboard> scoreboards = new ConcurrentHashMap<>();
+
+    // Per-group count of chore changes and evictions. A build that sees it move while
+    // it queries may have missed a change, so it is thrown away and run again.
+    private final Map<Long, Long> generations = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        buildTransaction = new TransactionTemplate(transactionManager);
+        buildTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        buildTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        buildTransaction.setReadOnly(true);
+    }
+
     /**
      * Calculate fairness scores for all members in a group
-     * Formula: 100 + (completed * 10) - (pending * 20)
+     * Formula: 100 + (completed effort * 10) - (pending effort * 20), capped at 100,
+     * where effort is the sum of the chores' weights. With a half-life set on the
+     * group, completed effort decays exponentially with the time since completion.
      * Higher score = more fair to assign to (they've done more work and/or have
      * fewer pending tasks)
      */
     public Map<Long, FairnessScore> calculateFairnessScores(Long groupId) {
-        Group group = groupRepository.findById(groupId)
-                .orElseThrow(() -> new RuntimeException("Group not found"));
+        return calculateFairnessScores(groupRepository.findWithMembersById(groupId)
+                .orElseThrow(() -> new RuntimeException("Group not found")));
+    }
 
-        List<Chore> groupChores = choreRepository.findByGroupId(groupId);
+    /**
+     * calculateFairnessScores for a group already loaded with its members
+     */
+    public Map<Long, FairnessScore> calculateFairnessScores(Group group) {
+        Scoreboard scoreboard = getScoreboard(group);
         Map<Long, FairnessScore> scores = new HashMap<>();
 
-        // Initialize scores for all members
         for (User member : group.getMembers()) {
-            scores.put(member.getId(), new FairnessScore(member.getId(), member.getFullName(), 0, 0, 100));
-        }
-
-        // Count pending and completed chores for each member
-        for (Chore chore : groupChores) {
-            if (chore.getAssignedTo() != null) {
-                Long userId = chore.getAssignedTo().getId();
-                FairnessScore score = scores.get(userId);
-                if (score != null) {
-                    if ("completed".equalsIgnoreCase(chore.getStatus())) {
-                        score.incrementCompleted();
-                    } else {
-                        score.incrementPending();
-                    }
-                }
-            }
-        }
-
-        // Calculate final scores
-        for (FairnessScore score : scores.values()) {
-            score.calculateScore();
+            FairnessScore score = scoreboard.score(member.getId());
+            score.fullName = member.getFullName();
+            scores.put(member.getId(), score);
         }
 
         return scores;
@@ -74,12 +119,311 @@ public class FairnessService {
         }
 
         // Find member with highest score
-        return scores.entrySet().stream()
-                .max(Map.Entry.comparingByValue((s1, s2) -> Integer.compare(s1.getScore(), s2.getScore())))
-                .map(Map.Entry::getKey)
+        return scores.values().stream()
+                .max(FAIREST)
+                .map(FairnessScore::getUserId)
                 .orElse(null);
     }
 
+    /**
+     * Pick the fairest member and charge them the new chore in one step, so that
+     * concurrent fair assignments in the same group each see the previous pick.
+     * Only the group's in-memory scoreboard is locked, and only while choosing; the
+     * caller persists the chore afterwards, reports it through onChoreCreated with the
+     * reservation (it is already counted) and calls release() if it could not be saved.
+     * Returns null when the group has no members.
+     */
+    public Reservation reserveFairestMember(Long groupId, Chore chore) {
+        List<Reservation> reservations = reserveFairestMembers(groupId, Collections.singletonList(chore));
+        return reservations.isEmpty() ? null : reservations.get(0);
+    }
+
+    /**
+     * reserveFairestMember for a batch of new chores, in order. Every pick takes the
+     * chores already handed out in the batch into account, so a week's worth of
+     * chores is spread over the group as evenly as the scores allow.
+     * Returns an empty list when the group has no members.
+     */
+    public List<Reservation> reserveFairestMembers(Long groupId, List<Chore> chores) {
+        Group group = groupRepository.findWithMembersById(groupId)
+                .orElseThrow(() -> new RuntimeException("Group not found"));
+        List<Long> memberIds = group.getMembers().stream().map(User::getId).collect(Collectors.toList());
+        if (memberIds.isEmpty() || chores.isEmpty()) {
+            return List.of();
+        }
+        Scoreboard scoreboard = getScoreboard(group);
+        List<ChoreLoad> loads = chores.stream().map(ChoreLoad::of).collect(Collectors.toList());
+        List<ChoreLoad> picks = scoreboard.reserve(memberIds, loads);
+        List<Reservation> reservations = new ArrayList<>(picks.size());
+        for (ChoreLoad pick : picks) {
+            reservations.add(new Reservation(pick, scoreboard));
+        }
+        return reservations;
+    }
+
+    /**
+     * Undo a reservation whose chore was not saved
+     */
+    public void release(Reservation reservation) {
+        if (reservation != null) {
+            reservation.scoreboard.add(reservation.load, -1);
+        }
+    }
+
+    public void release(List<Reservation> reservations) {
+        reservations.forEach(this::release);
+    }
+
+    /**
+     * Record a newly saved chore in its group's scoreboard
+     */
+    public void onChoreCreated(Chore chore) {
+        onChoreCreated(chore, null);
+    }
+
+    /**
+     * Record a chore saved with a reservation. It is already charged to the scoreboard
+     * it was reserved on; if that one has since been evicted, the current scoreboard
+     * was built without the uncommitted chore and gets it now.
+     */
+    public void onChoreCreated(Chore chore, Reservation reservation) {
+        update(chore.getGroup().getId(), scoreboard -> {
+            if (reservation == null || scoreboard != reservation.scoreboard) {
+                scoreboard.add(ChoreLoad.of(chore), 1);
+            }
+        });
+    }
+
+    /**
+     * Move an updated chore from its previous state (taken with ChoreLoad.of before
+     * the change) to its current one
+     */
+    public void onChoreUpdated(ChoreLoad previous, Chore chore) {
+        update(chore.getGroup().getId(), scoreboard -> {
+            scoreboard.add(previous, -1);
+            scoreboard.add(ChoreLoad.of(chore), 1);
+        });
+    }
+
+    /**
+     * Remove a deleted chore from its group's scoreboard
+     */
+    public void onChoreDeleted(Chore chore) {
+        update(chore.getGroup().getId(), scoreboard -> scoreboard.add(ChoreLoad.of(chore), -1));
+    }
+
+    /**
+     * Drop the cached scoreboard for a group so it is rebuilt on next use, e.g.
+     * after its fairness model changed
+     */
+    public void evictGroup(Long groupId) {
+        generations.merge(groupId, 1L, Long::sum);
+        scoreboards.remove(groupId);
+    }
+
+    // Changes are reported once committed. One that lands while the group's scoreboard
+    // is being built moves the generation, so the build is redone and reads it; groups
+    // without a scoreboard pick the change up when theirs is built.
+    private void update(Long groupId, Consumer<Scoreboard> change) {
+        generations.merge(groupId, 1L, Long::sum);
+        scoreboards.computeIfPresent(groupId, (id, scoreboard) -> {
+            change.accept(scoreboard);
+            return scoreboard;
+        });
+    }
+
+    // Built outside the map's locks, so a slow build holds up no other group. The result
+    // is installed only if no change or eviction happened since the build started.
+    private Scoreboard getScoreboard(Group group) {
+        Long groupId = group.getId();
+        Scoreboard scoreboard = scoreboards.get(groupId);
+        for (int attempt = 1; scoreboard == null; attempt++) {
+            long generation = generations.getOrDefault(groupId, 0L);
+            Scoreboard built = buildTransaction.execute(status -> build(group));
+            if (attempt == MAX_BUILD_ATTEMPTS) {
+                return built;
+            }
+            scoreboard = scoreboards.compute(groupId, (id, current) -> current != null ? current
+                    : generations.getOrDefault(id, 0L) == generation ? built : null);
+        }
+        return scoreboard;
+    }
+
+    private Scoreboard build(Group group) {
+        Integer halfLifeDays = group.getFairnessHalfLifeDays();
+        boolean decays = halfLifeDays != null && halfLifeDays > 0;
+        Scoreboard scoreboard = new Scoreboard(clock, decays ? TimeUnit.DAYS.toMillis(halfLifeDays) : 0);
+        for (ChoreRepository.AssigneeChoreCounts row : choreRepository.countByAssignee(group.getId())) {
+            scoreboard.load(row.getAssignedToId(), row.getPendingCount(), row.getCompletedCount(),
+                    row.getPendingWeight(), decays ? null : row.getCompletedWeight());
+        }
+        if (decays) {
+            LocalDateTime since = LocalDateTime.now(clock).minusDays((long) halfLifeDays * DECAY_WINDOW_HALF_LIVES);
+            for (ChoreRepository.DailyEffort row : choreRepository.sumCompletedWeightByDay(group.getId(), since)) {
+                // Within a day the exact time is not kept; count the day from its middle
+                LocalDateTime midday = LocalDate.of(row.getYear(), row.getMonth(), row.getDay()).atTime(LocalTime.NOON);
+                scoreboard.loadEffort(row.getAssignedToId(), row.getWeight(), midday);
+            }
+        }
+        return scoreboard;
+    }
+
+    /**
+     * Running tallies per member of one group. Completed effort is kept as a value
+     * and the time it was last brought up to date; decaying it to another time is a
+     * single multiplication, so every change costs O(1) however long the history is.
+     */
+    static class Scoreboard {
+        private final Map<Long, Tally> tallies = new HashMap<>();
+        private final Clock clock;
+        private final long halfLifeMillis; // 0 keeps completed effort forever
+
+        Scoreboard(Clock clock, long halfLifeMillis) {
+            this.clock = clock;
+            this.halfLifeMillis = halfLifeMillis;
+        }
+
+        synchronized void add(ChoreLoad load, int delta) {
+            if (load.userId == null) {
+                return;
+            }
+            Tally tally = tallies.computeIfAbsent(load.userId, id -> new Tally());
+            if (load.isCompleted()) {
+                tally.completed = Math.max(0, tally.completed + delta);
+                long now = clock.millis();
+                tally.decayTo(now, halfLifeMillis);
+                tally.effort = Math.max(0, tally.effort + delta * load.weight * decay(load.completedAt, now));
+            } else {
+                tally.pending = Math.max(0, tally.pending + delta);
+                tally.pendingWeight = Math.max(0, tally.pendingWeight + delta * load.weight);
+            }
+        }
+
+        // completedWeight is null for a decaying scoreboard, whose effort is loaded by loadEffort
+        synchronized void load(Long userId, Long pending, Long completed, Long pendingWeight, Long completedWeight) {
+            Tally tally = tallies.computeIfAbsent(userId, id -> new Tally());
+            tally.pending = pending != null ? pending.intValue() : 0;
+            tally.completed = completed != null ? completed.intValue() : 0;
+            tally.pendingWeight = pendingWeight != null ? pendingWeight.intValue() : tally.pending;
+            tally.effort = completedWeight != null ? completedWeight : 0;
+            tally.effortAt = clock.millis();
+        }
+
+        synchronized void loadEffort(Long userId, Long weight, LocalDateTime completedAt) {
+            Tally tally = tallies.computeIfAbsent(userId, id -> new Tally());
+            long now = clock.millis();
+            tally.decayTo(now, halfLifeMillis);
+            tally.effort += (weight != null ? weight : 0) * decay(completedAt, now);
+        }
+
+        synchronized FairnessScore score(Long userId) {
+            Tally tally = tallies.get(userId);
+            if (tally == null) {
+                return new FairnessScore(userId, null, 0, 0, 0, 0);
+            }
+            double effort = tally.effort * decay(tally.effortAt, clock.millis());
+            return new FairnessScore(userId, null, tally.pending, tally.completed, tally.pendingWeight, effort);
+        }
+
+        // One pick per chore, each charged before the next is made and all before the lock
+        // is released. The members sit in a heap keyed on their projected score (fairest
+        // at the head), so a batch costs O(chores * log members).
+        synchronized List<ChoreLoad> reserve(List<Long> memberIds, List<ChoreLoad> loads) {
+            PriorityQueue<FairnessScore> heap = new PriorityQueue<>(memberIds.size(), FAIREST.reversed());
+            memberIds.forEach(userId -> heap.add(score(userId)));
+            List<ChoreLoad> picks = new ArrayList<>(loads.size());
+            for (ChoreLoad load : loads) {
+                ChoreLoad pick = load.assignedTo(heap.poll().getUserId());
+                add(pick, 1);
+                heap.add(score(pick.userId));
+                picks.add(pick);
+            }
+            return picks;
+        }
+
+        // Share of a weight completed at the given time that is left now. Completions
+        // without a time (from before they were recorded) have fully decayed.
+        private double decay(LocalDateTime completedAt, long now) {
+            if (halfLifeMillis == 0) {
+                return 1;
+            }
+            if (completedAt == null) {
+                return 0;
+            }
+            return decay(completedAt.atZone(clock.getZone()).toInstant().toEpochMilli(), now);
+        }
+
+        private double decay(long since, long now) {
+            if (halfLifeMillis == 0 || since >= now) {
+                return 1;
+            }
+            return Math.pow(0.5, (double) (now - since) / halfLifeMillis);
+        }
+    }
+
+    private static class Tally {
+        private int pending;
+        private int completed;
+        private int pendingWeight;
+        private double effort;
+        private long effortAt;
+
+        void decayTo(long now, long halfLifeMillis) {
+            if (halfLifeMillis > 0 && now > effortAt) {
+                effort *= Math.pow(0.5, (double) (now - effortAt) / halfLifeMillis);
+            }
+            effortAt = now;
+        }
+    }
+
+    /**
+     * What one chore counts for in its assignee's tally
+     */
+    public static class ChoreLoad {
+        private final Long userId;
+        private final String status;
+        private final int weight;
+        private final LocalDateTime completedAt;
+
+        private ChoreLoad(Long userId, String status, int weight, LocalDateTime completedAt) {
+            this.userId = userId;
+            this.status = status;
+            this.weight = weight;
+            this.completedAt = completedAt;
+        }
+
+        public static ChoreLoad of(Chore chore) {
+            Long userId = chore.getAssignedTo() != null ? chore.getAssignedTo().getId() : null;
+            int weight = chore.getWeight() != null ? chore.getWeight() : 1;
+            return new ChoreLoad(userId, chore.getStatus(), weight, chore.getCompletedAt());
+        }
+
+        ChoreLoad assignedTo(Long userId) {
+            return new ChoreLoad(userId, status, weight, completedAt);
+        }
+
+        boolean isCompleted() {
+            return "completed".equalsIgnoreCase(status);
+        }
+    }
+
+    /**
+     * A member already charged with a chore that is about to be saved
+     */
+    public static class Reservation {
+        private final ChoreLoad load;
+        private final Scoreboard scoreboard;
+
+        Reservation(ChoreLoad load, Scoreboard scoreboard) {
+            this.load = load;
+            this.scoreboard = scoreboard;
+        }
+
+        public Long getUserId() {
+            return load.userId;
+        }
+    }
+
     /**
      * Inner class to hold fairness score data
      */
@@ -88,26 +432,39 @@ public class FairnessService {
         private String fullName;
         private int pending;
         private int completed;
+        private int pendingWeight;
+        private double effort;
         private int score;
 
         public FairnessScore(Long userId, String fullName, int pending, int completed, int score) {
+            this(userId, fullName, pending, completed, pending, completed);
+            this.score = score;
+        }
+
+        public FairnessScore(Long userId, String fullName, int pending, int completed, int pendingWeight,
+                double effort) {
             this.userId = userId;
             this.fullName = fullName;
             this.pending = pending;
             this.completed = completed;
-            this.score = score;
+            this.pendingWeight = pendingWeight;
+            this.effort = effort;
+            calculateScore();
         }
 
         public void incrementPending() {
             this.pending++;
+            this.pendingWeight++;
         }
 
         public void incrementCompleted() {
             this.completed++;
+            this.effort++;
         }
 
         public void calculateScore() {
-            this.score = Math.min(100, 100 + (completed * 10) - (pending * 20));
+            this.score = (int) Math.min(100,
+                    Math.round(100 + (effort * COMPLETED_POINTS) - (pendingWeight * PENDING_POINTS)));
         }
 
         // Getters
@@ -127,6 +484,15 @@ public class FairnessService {
             return completed;
         }
 
+        public int getPendingWeight() {
+            return pendingWeight;
+        }
+
+        // Completed effort after decay, to two decimals
+        public double getEffort() {
+            return Math.round(effort * 100) / 100.0;
+        }
+
         public int getScore() {
             return score;
         }
@@ -0,0 +1,193 @@
+package com.example.mzp.fairshare1.services;
+
+import com.example.mzp.fairshare1.repositories.GroupRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Hands out group join codes (3 letters + 6 digits) without a database round trip.
+ * A Bloom filter of every code in use is loaded once in the background; candidate
+ * codes that the filter has definitely not seen are kept in a small pool that is
+ * topped up off the request thread. The unique constraint on Group.code remains the
+ * final guard for the rare code the filter could not know about (for example one
+ * created by another instance).
+ */
+@Component
+public class GroupCodeAllocator {
+
+    private static final Logger log = LoggerFactory.getLogger(GroupCodeAllocator.class);
+
+    private static final int MIN_FILTER_CAPACITY = 1 << 16;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Value("${fairshare.groups.code-pool-size:64}")
+    private int poolSize;
+
+    private Random random = new SecureRandom();
+    private final AtomicBoolean refillQueued = new AtomicBoolean();
+    private BlockingQueue<String> pool;
+    private ScheduledExecutorService refiller;
+
+    // Null until the used codes have been loaded
+    private volatile BloomFilter usedCodes;
+
+    @PostConstruct
+    public void start() {
+        pool = new ArrayBlockingQueue<>(poolSize);
+        refiller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "group-code-refill");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Periodic pass also retries the initial load if the database was not up yet
+        refiller.scheduleWithFixedDelay(this::refill, 0, 30, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        refiller.shutdownNow();
+    }
+
+    /**
+     * A code that is very likely unused. Callers must still handle a unique
+     * constraint violation on save by asking for another code.
+     */
+    public String allocate() {
+        String code = pool.poll();
+        if (pool.size() < poolSize / 2 && refillQueued.compareAndSet(false, true)) {
+            refiller.execute(() -> {
+                refillQueued.set(false);
+                refill();
+            });
+        }
+        if (code == null) {
+            code = freshCandidate();
+        }
+        BloomFilter filter = usedCodes;
+        if (filter != null) {
+            filter.add(code);
+        }
+        return code;
+    }
+
+    private void refill() {
+        try {
+            BloomFilter filter = usedCodes;
+            if (filter == null || filter.isOverCapacity()) {
+                filter = loadUsedCodes();
+                usedCodes = filter;
+            }
+            while (pool.remainingCapacity() > 0) {
+                if (!pool.offer(freshCandidate())) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not refill group code pool: {}", e.getMessage());
+        }
+    }
+
+    private BloomFilter loadUsedCodes() {
+        List<String> codes = groupRepository.findAllCodes();
+        BloomFilter filter = new BloomFilter(Math.max(MIN_FILTER_CAPACITY, codes.size() * 2), 0.01);
+        codes.forEach(filter::add);
+        return filter;
+    }
+
+    // Random codes until one is definitely absent from the filter (if it is loaded)
+    private String freshCandidate() {
+        BloomFilter filter = usedCodes;
+        String code;
+        do {
+            code = randomCode();
+        } while (filter != null && filter.mightContain(code));
+        return code;
+    }
+
+    private String randomCode() {
+        char[] code = new char[9];
+        for (int i = 0; i < 3; i++) {
+            code[i] = (char) ('A' + random.nextInt(26));
+        }
+        for (int i = 3; i < 9; i++) {
+            code[i] = (char) ('0' + random.nextInt(10));
+        }
+        return new String(code);
+    }
+
+    /**
+     * Fixed-size Bloom filter over strings using double hashing
+     */
+    static class BloomFilter {
+        private final BitSet bits;
+        private final int size;
+        private final int hashes;
+        private final int capacity;
+        private int added;
+
+        BloomFilter(int capacity, double falsePositiveRate) {
+            this.capacity = capacity;
+            this.size = (int) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.hashes = Math.max(1, (int) Math.round((double) size / capacity * Math.log(2)));
+            this.bits = new BitSet(size);
+        }
+
+        synchronized void add(String value) {
+            long h = hash(value);
+            int h1 = (int) h;
+            int h2 = (int) (h >>> 32);
+            for (int i = 0; i < hashes; i++) {
+                bits.set(Math.floorMod(h1 + i * h2, size));
+            }
+            added++;
+        }
+
+        synchronized boolean mightContain(String value) {
+            long h = hash(value);
+            int h1 = (int) h;
+            int h2 = (int) (h >>> 32);
+            for (int i = 0; i < hashes; i++) {
+                if (!bits.get(Math.floorMod(h1 + i * h2, size))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Past its design capacity the false positive rate climbs; time to rebuild bigger
+        synchronized boolean isOverCapacity() {
+            return added > capacity;
+        }
+
+        // 64-bit FNV-1a followed by a murmur-style finalizer
+        private static long hash(String value) {
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0; i < value.length(); i++) {
+                h ^= value.charAt(i);
+                h *= 0x100000001b3L;
+            }
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.mzp.fairshare1.services;
+
+import com.example.mzp.fairshare1.repositories.GroupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Removes the rows of deleted groups in the background. GroupService.deleteGroup
+ * only marks a group deleted, which hides it at once; this then deletes its rows
+ * table by table with DELETE ... LIMIT statements that each commit on their own, so
+ * no lock is held for longer than one chunk and no request waits on the purge.
+ *
+ * The deleted_at mark is the only state: a purge cut short by a restart is picked
+ * up again by the next sweep, and repeating a chunk is harmless. A group whose purge
+ * fails is passed over by the sweeps for a growing interval, so it never holds up the
+ * groups deleted after it.
+ */
+@Service
+public class GroupPurger {
+
+    private static final Logger log = LoggerFactory.getLogger(GroupPurger.class);
+
+    // Children before parents: notifications and chores reference the group,
+    // group_members is the membership join table
+    private static final List<String> TABLES = List.of("notifications", "chores", "chore_recurrences", "expenses",
+            "monthly_spend", "group_members");
+
+    private static final Duration KEEP_FINISHED = Duration.ofHours(1);
+
+    // Wait after a failed purge: doubles with every attempt, up to the maximum
+    private static final Duration RETRY_DELAY = Duration.ofMinutes(1);
+    private static final Duration MAX_RETRY_DELAY = Duration.ofHours(6);
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Lazy: NotificationService depends on GroupService, which depends on this
+    @Autowired
+    @Lazy
+    private NotificationService notificationService;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private TaskExecutor taskExecutor;
+
+    @Value("${fairshare.groups.purge-chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${fairshare.groups.purge-groups-per-sweep:50}")
+    private int groupsPerSweep;
+
+    // Progress of current and recently finished purges, by group id
+    private final Map<Long, PurgeProgress> progress = new ConcurrentHashMap<>();
+
+    /**
+     * Start a sweep now rather than at the next scheduled one
+     */
+    public void schedule() {
+        taskExecutor.execute(this::purgeDeletedGroups);
+    }
+
+    public PurgeProgress getProgress(Long groupId) {
+        return progress.get(groupId);
+    }
+
+    // Synchronized: a sweep started while another runs waits for it and then finds
+    // whatever it left
+    @Scheduled(initialDelayString = "${fairshare.groups.purge-interval-ms:60000}",
+            fixedDelayString = "${fairshare.groups.purge-interval-ms:60000}")
+    public synchronized void purgeDeletedGroups() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(KEEP_FINISHED);
+        progress.values().removeIf(p -> p.finishedAt != null && p.finishedAt.isBefore(cutoff));
+
+        List<Long> groupIds;
+        // Groups this sweep leaves behind stay at the front of the list; page past them
+        int leftBehind = 0;
+        do {
+            groupIds = groupRepository.findDeletedIds(groupsPerSweep, leftBehind);
+            for (Long groupId : groupIds) {
+                PurgeProgress current = progress.computeIfAbsent(groupId, PurgeProgress::new);
+                if (current.retryAt != null && current.retryAt.isAfter(LocalDateTime.now())) {
+                    leftBehind++;
+                    continue;
+                }
+                try {
+                    purge(current);
+                } catch (RuntimeException e) {
+                    // Left marked; retried by a later sweep once the delay has passed
+                    current.failed(e);
+                    log.warn("Could not purge group {} (attempt {}, next after {}): {}", groupId,
+                            current.attempts, current.retryAt, e.getMessage());
+                    leftBehind++;
+                }
+            }
+        } while (groupIds.size() == groupsPerSweep);
+    }
+
+    private void purge(PurgeProgress current) {
+        Long groupId = current.groupId;
+        for (String table : TABLES) {
+            String sql = "DELETE FROM " + table + " WHERE group_id = ? LIMIT ?";
+            int deleted;
+            do {
+                deleted = jdbcTemplate.update(sql, groupId, chunkSize);
+                current.add(table, deleted);
+            } while (deleted == chunkSize);
+        }
+        jdbcTemplate.update("DELETE FROM groups_table WHERE id = ? AND deleted_at IS NOT NULL", groupId);
+        current.finishedAt = LocalDateTime.now();
+        notificationService.evictUnreadCounts();
+        log.info("Purged group {}: {}", groupId, current.getDeleted());
+    }
+
+    /**
+     * Rows deleted so far for one group, per table
+     */
+    public static class PurgeProgress {
+        private final Long groupId;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final Map<String, Long> deleted = new LinkedHashMap<>();
+        private volatile LocalDateTime finishedAt;
+        private volatile int attempts;
+        private volatile String lastError;
+        private volatile LocalDateTime retryAt;
+
+        PurgeProgress(Long groupId) {
+            this.groupId = groupId;
+        }
+
+        void failed(RuntimeException e) {
+            attempts++;
+            lastError = e.getMessage();
+            Duration delay = RETRY_DELAY.multipliedBy(1L << Math.min(attempts - 1, 16));
+            retryAt = LocalDateTime.now().plus(delay.compareTo(MAX_RETRY_DELAY) < 0 ? delay : MAX_RETRY_DELAY);
+        }
+
+        synchronized void add(String table, int rows) {
+            deleted.merge(table, (long) rows, Long::sum);
+        }
+
+        public Long getGroupId() {
+            return groupId;
+        }
+
+        public LocalDateTime getStartedAt() {
+            return startedAt;
+        }
+
+        public synchronized Map<String, Long> getDeleted() {
+            return new LinkedHashMap<>(deleted);
+        }
+
+        public LocalDateTime getFinishedAt() {
+            return finishedAt;
+        }
+
+        public boolean isDone() {
+            return finishedAt != null;
+        }
+
+        public int getAttempts() {
+            return attempts;
+        }
+
+        public String getLastError() {
+            return lastError;
+        }
+
+        public LocalDateTime getRetryAt() {
+            return retryAt;
+        }
+    }
+}
@@ -4,12 +4,18 @@ import com.example.mzp.fairshare1.entity.Group;
 import com.example.mzp.fairshare1.entity.User;
 import com.example.mzp.fairshare1.repositories.GroupRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Random;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class GroupService {
@@ -21,53 +27,125 @@ public class GroupService {
     private com.example.mzp.fairshare1.repositories.UserRepository userRepository;
 
     @Autowired
-    private com.example.mzp.fairshare1.repositories.ChoreRepository choreRepository;
+    private com.example.mzp.fairshare1.repositories.ChoreRecurrenceRepository choreRecurrenceRepository;
 
     @Autowired
-    private com.example.mzp.fairshare1.repositories.ExpenseRepository expenseRepository;
+    private FairnessService fairnessService;
 
     @Autowired
-    private com.example.mzp.fairshare1.repositories.NotificationRepository notificationRepository;
+    private SettlementService settlementService;
 
-    @Transactional
+    @Autowired
+    private BudgetService budgetService;
+
+    @Autowired
+    private GroupCodeAllocator groupCodeAllocator;
+
+    @Autowired
+    private GroupVersionService groupVersionService;
+
+    @Autowired
+    private GroupPurger groupPurger;
+
+    @Autowired
+    private SearchService searchService;
+
+    private static final int MAX_CODE_ATTEMPTS = 5;
+
+    private static final int MAX_HALF_LIFE_DAYS = 365;
+
+    // Group ids per user id. Invalidated whenever that user's memberships change.
+    private final Map<Long, List<Long>> userGroupIds = new ConcurrentHashMap<>();
+
+    // Not @Transactional: a duplicate code fails the insert, and the retry needs a fresh
+    // persistence context rather than one already marked for rollback.
     public Group createGroup(String name, User creator) {
-        String code = generateUniqueCode();
-        Group group = new Group(name, code);
-        group.addMember(creator);
-        group.setOwner(creator); // Set creator as owner
-        Group savedGroup = groupRepository.save(group);
+        Group savedGroup = null;
+        for (int attempt = 1; savedGroup == null; attempt++) {
+            String code = groupCodeAllocator.allocate();
+            Group group = new Group(name, code);
+            group.addMember(creator);
+            group.setOwner(creator); // Set creator as owner
+            try {
+                savedGroup = groupRepository.save(group);
+            } catch (DataIntegrityViolationException e) {
+                // Retry only when the code itself was taken (unique constraint on Group.code)
+                if (attempt >= MAX_CODE_ATTEMPTS || groupRepository.countByCodeIncludingDeleted(code) == 0) {
+                    throw e;
+                }
+            }
+        }
+        evictUserGroups(creator.getId());
         // Reload to ensure owner is populated correctly
         return groupRepository.findById(savedGroup.getId()).orElse(savedGroup);
     }
 
+    @Transactional
     public Group joinGroup(String code, User user) {
         Group group = groupRepository.findByCode(code)
                 .orElseThrow(() -> new RuntimeException("Group not found with code: " + code));
         group.addMember(user);
-        return groupRepository.save(group);
+        Group saved = groupRepository.save(group);
+        evictUserGroups(user.getId());
+        evictAfterCommit(() -> settlementService.evictGroup(saved.getId()));
+        groupVersionService.bump(saved.getId());
+        return saved;
     }
 
+    @Transactional
     public Group addMember(Long groupId, User user) {
         Group group = groupRepository.findById(groupId)
                 .orElseThrow(() -> new RuntimeException("Group not found"));
         group.addMember(user);
-        return groupRepository.save(group);
+        Group saved = groupRepository.save(group);
+        evictUserGroups(user.getId());
+        evictAfterCommit(() -> settlementService.evictGroup(saved.getId()));
+        groupVersionService.bump(saved.getId());
+        return saved;
     }
 
     public List<Group> getUserGroups(User user) {
-        return groupRepository.findAll().stream()
-                .filter(group -> group.getMembers().contains(user))
-                .collect(Collectors.toList());
+        List<Long> groupIds = userGroupIds.computeIfAbsent(user.getId(),
+                groupRepository::findGroupIdsByMemberId);
+        if (groupIds.isEmpty()) {
+            return List.of();
+        }
+        List<Group> groups = new ArrayList<>(groupRepository.findByIdIn(groupIds));
+        groups.sort(Comparator.comparing(Group::getId));
+        return groups;
     }
 
+    /**
+     * Soft delete: the group disappears from every query as soon as this commits, and
+     * GroupPurger removes its chores, expenses, notifications and memberships in the
+     * background
+     */
     @Transactional
     public void deleteGroup(Long groupId) {
-        choreRepository.deleteByGroupId(groupId);
-        expenseRepository.deleteByGroupId(groupId);
-        notificationRepository.deleteByGroupId(groupId);
-        groupRepository.deleteById(groupId);
+        Group group = groupRepository.findById(groupId).orElse(null);
+        if (group == null) {
+            return;
+        }
+        group.getMembers().forEach(member -> evictUserGroups(member.getId()));
+        group.setDeletedAt(LocalDateTime.now());
+        groupRepository.save(group);
+        choreRecurrenceRepository.deactivateByGroupId(groupId);
+        evictAfterCommit(() -> {
+            fairnessService.evictGroup(groupId);
+            settlementService.evictGroup(groupId);
+            searchService.evictGroup(groupId);
+        });
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    groupPurger.schedule();
+                }
+            });
+        }
     }
 
+    @Transactional
     public void removeMember(Long groupId, User user, Long requesterId) {
         Group group = groupRepository.findById(groupId)
                 .orElseThrow(() -> new RuntimeException("Group not found"));
@@ -82,22 +160,48 @@ public class GroupService {
 
         group.removeMember(user);
         groupRepository.save(group);
+        evictUserGroups(user.getId());
+        evictAfterCommit(() -> settlementService.evictGroup(groupId));
+        groupVersionService.bump(groupId);
     }
 
     public Group updateGroup(Long groupId, String name) {
         Group group = groupRepository.findById(groupId)
                 .orElseThrow(() -> new RuntimeException("Group not found"));
         group.setName(name);
-        return groupRepository.save(group);
+        Group saved = groupRepository.save(group);
+        groupVersionService.bump(groupId);
+        return saved;
     }
 
     public Group updateMonthlyBudget(Long groupId, Double budget) {
         Group group = groupRepository.findById(groupId)
                 .orElseThrow(() -> new RuntimeException("Group not found"));
         group.setMonthlyBudget(budget);
-        return groupRepository.save(group);
+        Group saved = groupRepository.save(group);
+        budgetService.onBudgetChanged(groupId);
+        groupVersionService.bump(groupId);
+        return saved;
+    }
+
+    /**
+     * Set how fast completed chores stop counting towards fairness: a half-life in
+     * days, or null to count them forever
+     */
+    public Group updateFairnessModel(Long groupId, Integer halfLifeDays) {
+        if (halfLifeDays != null && (halfLifeDays < 1 || halfLifeDays > MAX_HALF_LIFE_DAYS)) {
+            throw new RuntimeException("Half-life must be between 1 and " + MAX_HALF_LIFE_DAYS + " days");
+        }
+        Group group = groupRepository.findById(groupId)
+                .orElseThrow(() -> new RuntimeException("Group not found"));
+        group.setFairnessHalfLifeDays(halfLifeDays);
+        Group saved = groupRepository.save(group);
+        fairnessService.evictGroup(groupId);
+        groupVersionService.bump(groupId);
+        return saved;
     }
 
+    @Transactional
     public Group transferOwnership(Long groupId, User newOwner, User requester) {
         Group group = groupRepository.findById(groupId)
                 .orElseThrow(() -> new RuntimeException("Group not found"));
@@ -111,29 +215,26 @@ public class GroupService {
         }
 
         group.setOwner(newOwner);
-        return groupRepository.save(group);
+        Group saved = groupRepository.save(group);
+        groupVersionService.bump(groupId);
+        return saved;
     }
 
-    private String generateUniqueCode() {
-        String code;
-        do {
-            code = generateCode();
-        } while (groupRepository.findByCode(code).isPresent());
-        return code;
+    private void evictUserGroups(Long userId) {
+        evictAfterCommit(() -> userGroupIds.remove(userId));
     }
 
-    private String generateCode() {
-        Random random = new Random();
-        StringBuilder sb = new StringBuilder();
-
-        for (int i = 0; i < 3; i++) {
-            sb.append((char) ('A' + random.nextInt(26)));
-        }
-
-        for (int i = 0; i < 6; i++) {
-            sb.append(random.nextInt(10));
+    // Evict now and, inside a transaction, again after commit so a concurrent read
+    // cannot re-cache what it saw before this change under the new data version.
+    private void evictAfterCommit(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
         }
-
-        return sb.toString();
     }
 }
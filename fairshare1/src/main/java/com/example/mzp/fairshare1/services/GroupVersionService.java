@@ -0,0 +1,48 @@
+package com.example.mzp.fairshare1.services;
+
+import com.example.mzp.fairshare1.repositories.GroupRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+
+/**
+ * A per-group counter bumped by every change to the group's chores, expenses,
+ * members or budget. Anything read from one group can use it as a strong ETag,
+ * so a client refresh that matches If-None-Match costs a single primary key lookup.
+ *
+ * Bump after the change is committed (or inside the same transaction): a reader
+ * may then see new data under the old version, which only costs it a full
+ * response, but never old data under the new version.
+ */
+@Service
+public class GroupVersionService {
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    public void bump(Long groupId) {
+        if (groupId != null) {
+            groupRepository.incrementDataVersion(groupId);
+        }
+    }
+
+    /**
+     * For changes to a user that groups show (name, avatar): bump every group they are in
+     */
+    public void bumpForMember(Long userId) {
+        groupRepository.incrementDataVersionForMember(userId);
+    }
+
+    public String etag(Long groupId) {
+        return "\"" + groupId + "." + groupRepository.findDataVersionById(groupId).orElse(0L) + "\"";
+    }
+
+    /**
+     * For responses that also depend on today's date, such as the budget projection
+     */
+    public String dailyEtag(Long groupId) {
+        String etag = etag(groupId);
+        return etag.substring(0, etag.length() - 1) + "." + LocalDate.now() + "\"";
+    }
+}
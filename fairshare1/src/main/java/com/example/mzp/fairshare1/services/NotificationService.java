@@ -6,10 +6,25 @@ import com.example.mzp.fairshare1.entity.User;
 import com.example.mzp.fairshare1.repositories.GroupRepository;
 import com.example.mzp.fairshare1.repositories.NotificationRepository;
 import com.example.mzp.fairshare1.repositories.UserRepository;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class NotificationService {
@@ -26,6 +41,33 @@ public class NotificationService {
     @Autowired
     private GroupService groupService;
 
+    @Autowired
+    private NotificationWriter notificationWriter;
+
+    @Autowired
+    private NotificationStreamService notificationStreamService;
+
+    // Spring Boot's shared executor; runs on virtual threads when spring.threads.virtual.enabled is set
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private TaskExecutor taskExecutor;
+
+    public static final int DEFAULT_INBOX_PAGE_SIZE = 20;
+    public static final int MAX_INBOX_PAGE_SIZE = 100;
+
+    // Unread notification count per recipient id. Loaded on first request and then
+    // maintained on insert and mark-read so the badge never needs the list.
+    private final Map<Long, AtomicLong> unreadCounts = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void registerWriterListener() {
+        notificationWriter.onPersisted(batch -> {
+            batch.forEach(this::afterPersist);
+            // Pushing to slow SSE clients must not hold up the next database batch
+            taskExecutor.execute(() -> notificationStreamService.publish(batch));
+        });
+    }
+
     public void sendInvite(Long groupId, String email, User sender) {
         User recipient = userRepository.findByEmail(email);
         if (recipient == null) {
@@ -48,13 +90,58 @@ public class NotificationService {
         notification.setType(Notification.NotificationType.GROUP_INVITE);
         notification.setMessage(sender.getFullName() + " invited you to join " + group.getName());
 
-        notificationRepository.save(notification);
+        persist(notification);
     }
 
     public List<Notification> getUserNotifications(User user) {
         return notificationRepository.findByRecipientOrderByCreatedAtDesc(user);
     }
 
+    /**
+     * One page of a user's inbox, newest first, optionally filtered by type and status.
+     * The cursor is the opaque nextCursor of the previous page; null starts from the top.
+     */
+    public InboxPage getInbox(Long userId, String cursor, int limit,
+            Notification.NotificationType type, Notification.NotificationStatus status) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_INBOX_PAGE_SIZE));
+        // Fetch one extra row to learn whether another page exists
+        PageRequest window = PageRequest.of(0, pageSize + 1);
+
+        List<NotificationRepository.InboxItem> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = notificationRepository.findInboxFirstPage(userId, type, status, window);
+        } else {
+            String decoded;
+            try {
+                decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Invalid cursor");
+            }
+            int separator = decoded.lastIndexOf('|');
+            if (separator < 0) {
+                throw new RuntimeException("Invalid cursor");
+            }
+            LocalDateTime createdAt;
+            Long id;
+            try {
+                createdAt = LocalDateTime.parse(decoded.substring(0, separator));
+                id = Long.valueOf(decoded.substring(separator + 1));
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Invalid cursor");
+            }
+            rows = notificationRepository.findInboxPageAfter(userId, type, status, createdAt, id, window);
+        }
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            NotificationRepository.InboxItem last = rows.get(pageSize - 1);
+            nextCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                    (last.getCreatedAt() + "|" + last.getId()).getBytes(StandardCharsets.UTF_8));
+        }
+        return new InboxPage(rows, nextCursor);
+    }
+
     public List<Notification> getPendingNotifications(User user) {
         return notificationRepository.findByRecipientAndStatusOrderByCreatedAtDesc(user,
                 Notification.NotificationStatus.PENDING);
@@ -111,11 +198,40 @@ public class NotificationService {
         notification.setGroup(chore.getGroup());
         notification.setType(Notification.NotificationType.CHORE_ASSIGNED);
         notification.setMessage(creator.getFullName() + " assigned you a chore: " + chore.getTitle());
-        notificationRepository.save(notification);
+        notificationWriter.enqueue(notification);
+    }
+
+    /**
+     * Notifications for chores created together: one per assignee, however many of
+     * the chores they were given, all handed to the writer in one go
+     */
+    public void sendChoreNotifications(List<com.example.mzp.fairshare1.entity.Chore> chores, User creator) {
+        Map<Long, List<com.example.mzp.fairshare1.entity.Chore>> byAssignee = new LinkedHashMap<>();
+        for (com.example.mzp.fairshare1.entity.Chore chore : chores) {
+            if (chore.getAssignedTo() != null && !chore.getAssignedTo().getId().equals(creator.getId())) {
+                byAssignee.computeIfAbsent(chore.getAssignedTo().getId(), id -> new ArrayList<>()).add(chore);
+            }
+        }
+        byAssignee.values().forEach(assigned -> {
+            if (assigned.size() == 1) {
+                sendChoreNotification(assigned.get(0), creator);
+                return;
+            }
+            Group group = assigned.get(0).getGroup();
+            Notification notification = new Notification();
+            notification.setRecipient(assigned.get(0).getAssignedTo());
+            notification.setSender(creator);
+            notification.setGroup(group);
+            notification.setType(Notification.NotificationType.CHORE_ASSIGNED);
+            notification.setMessage(creator.getFullName() + " assigned you " + assigned.size() + " chores in "
+                    + group.getName());
+            notificationWriter.enqueue(notification);
+        });
     }
 
     public void sendExpenseNotification(com.example.mzp.fairshare1.entity.Expense expense, User creator) {
-        // Notify all group members except the creator
+        // Notify all group members except the creator. Rows are written in batches
+        // by NotificationWriter so the request does not wait on one INSERT per member.
         com.example.mzp.fairshare1.entity.Group group = expense.getGroup();
         for (User member : group.getMembers()) {
             if (!member.getId().equals(creator.getId())) {
@@ -125,31 +241,97 @@ public class NotificationService {
                 notification.setGroup(group);
                 notification.setType(Notification.NotificationType.EXPENSE_ADDED);
                 notification.setMessage(creator.getFullName() + " added an expense to " + group.getName());
-                notificationRepository.save(notification);
+                notificationWriter.enqueue(notification);
             }
         }
     }
 
+    public void sendBudgetAlert(Long groupId, User actor, String month, int percent, double spent, double budget) {
+        // Members are only needed on the rare alert, so load them here rather than on every expense
+        Group group = groupRepository.findWithMembersById(groupId).orElse(null);
+        if (group == null) {
+            return;
+        }
+        User sender = actor != null ? actor : group.getOwner();
+        if (sender == null) {
+            return;
+        }
+        String message = String.format("%s has spent %.2f of its %.2f budget for %s (%d%%)",
+                group.getName(), spent, budget, month, percent);
+        for (User member : group.getMembers()) {
+            Notification notification = new Notification();
+            notification.setRecipient(member);
+            notification.setSender(sender);
+            notification.setGroup(group);
+            notification.setType(Notification.NotificationType.BUDGET_ALERT);
+            notification.setMessage(message);
+            notificationWriter.enqueue(notification);
+        }
+    }
+
+    // The cached count is dropped once the update commits and reloaded on next use:
+    // zeroing it here would lose notifications persisted before the commit, and keep
+    // 0 if the update rolled back
+    @Transactional
     public void markAllRead(User user) {
-        List<Notification> notifications = notificationRepository.findByRecipientAndStatusOrderByCreatedAtDesc(user,
-                Notification.NotificationStatus.PENDING);
-        for (Notification notification : notifications) {
-            notification.setRead(true);
-            notificationRepository.save(notification);
-        }
-        // Also mark accepted/rejected ones as read if they aren't?
-        // Actually, let's just mark ALL notifications for the user as read, regarding
-        // of status, if they are unread.
-        // But for efficiency, maybe just find all unread ones.
-        // Since I haven't added findByRecipientAndIsReadFalse to repository, I'll
-        // filter in memory or fetch all.
-        // Let's use getUserNotifications and filter.
-        List<Notification> all = getUserNotifications(user);
-        for (Notification n : all) {
-            if (!n.isRead()) {
-                n.setRead(true);
-                notificationRepository.save(n);
+        notificationRepository.markAllReadByRecipientId(user.getId());
+        Long userId = user.getId();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            unreadCounts.remove(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                unreadCounts.remove(userId);
             }
+        });
+    }
+
+    public long getUnreadCount(Long userId) {
+        return unreadCounts.computeIfAbsent(userId,
+                id -> new AtomicLong(notificationRepository.countUnreadByRecipientId(id))).get();
+    }
+
+    /**
+     * Forget cached unread counts after notifications were removed in bulk
+     */
+    public void evictUnreadCounts() {
+        unreadCounts.clear();
+    }
+
+    private Notification persist(Notification notification) {
+        Notification saved = notificationRepository.save(notification);
+        afterPersist(saved);
+        notificationStreamService.publish(List.of(saved));
+        return saved;
+    }
+
+    private void afterPersist(Notification notification) {
+        AtomicLong unread = unreadCounts.get(notification.getRecipient().getId());
+        if (unread != null && !notification.isRead()) {
+            unread.incrementAndGet();
+        }
+    }
+
+    /**
+     * A page of inbox items and the cursor for the next one (null on the last page)
+     */
+    public static class InboxPage {
+        private final List<NotificationRepository.InboxItem> items;
+        private final String nextCursor;
+
+        public InboxPage(List<NotificationRepository.InboxItem> items, String nextCursor) {
+            this.items = items;
+            this.nextCursor = nextCursor;
+        }
+
+        public List<NotificationRepository.InboxItem> getItems() {
+            return items;
+        }
+
+        public String getNextCursor() {
+            return nextCursor;
         }
     }
 }
@@ -0,0 +1,220 @@
+package com.example.mzp.fairshare1.services;
+
+import com.example.mzp.fairshare1.entity.Notification;
+import com.example.mzp.fairshare1.repositories.NotificationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Pushes new notifications to connected clients over Server-Sent Events.
+ * Each open stream costs one emitter in the registry; nothing is queried for a
+ * user until a notification for them is persisted.
+ */
+@Service
+public class NotificationStreamService {
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Value("${fairshare.notifications.stream-timeout-ms:1800000}")
+    private long streamTimeoutMs;
+
+    // Open streams per recipient id; a user may have several tabs open
+    private final Map<Long, Set<Stream>> streams = new ConcurrentHashMap<>();
+
+    /**
+     * Open a stream for a user. When the client reconnects with the id of the last
+     * event it received, anything persisted since then is replayed first; if more
+     * was missed than one replay holds, a "resync" event tells the client to reload
+     * its inbox.
+     */
+    public SseEmitter subscribe(Long userId, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        Stream stream = new Stream(emitter, lastEventId != null ? lastEventId : 0L, lastEventId != null);
+        // Registered before the replay query so nothing persisted meanwhile is missed;
+        // until the replay is done, live notifications are only held back
+        streams.computeIfAbsent(userId, id -> new CopyOnWriteArraySet<>()).add(stream);
+        emitter.onCompletion(() -> remove(userId, stream));
+        emitter.onTimeout(() -> remove(userId, stream));
+        emitter.onError(e -> remove(userId, stream));
+
+        if (lastEventId != null) {
+            List<NotificationRepository.InboxItem> missed = notificationRepository.findInboxItemsAfterId(userId,
+                    lastEventId, PageRequest.of(0, NotificationService.MAX_INBOX_PAGE_SIZE));
+            boolean open = stream.replay(missed);
+            if (open && missed.size() == NotificationService.MAX_INBOX_PAGE_SIZE) {
+                open = stream.resync();
+            }
+            if (!open || !stream.goLive()) {
+                remove(userId, stream);
+            }
+        }
+        return emitter;
+    }
+
+    /**
+     * Send freshly persisted notifications to any recipients who are connected
+     */
+    public void publish(List<Notification> notifications) {
+        List<Long> ids = notifications.stream()
+                .filter(n -> n.getId() != null && streams.containsKey(n.getRecipient().getId()))
+                .map(Notification::getId)
+                .collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return;
+        }
+        for (NotificationRepository.InboxItem item : notificationRepository.findInboxItemsByIds(ids)) {
+            Set<Stream> open = streams.get(item.getRecipientId());
+            if (open != null) {
+                open.forEach(stream -> {
+                    if (!stream.publish(item)) {
+                        remove(item.getRecipientId(), stream);
+                    }
+                });
+            }
+        }
+    }
+
+    public int getOpenStreamCount() {
+        return streams.values().stream().mapToInt(Set::size).sum();
+    }
+
+    /**
+     * Keep idle connections alive through proxies and find the ones that went away
+     */
+    @Scheduled(fixedRateString = "${fairshare.notifications.stream-heartbeat-ms:25000}")
+    public void heartbeat() {
+        streams.forEach((userId, open) -> open.forEach(stream -> {
+            if (!stream.heartbeat()) {
+                remove(userId, stream);
+            }
+        }));
+    }
+
+    private void remove(Long userId, Stream stream) {
+        streams.computeIfPresent(userId, (id, open) -> {
+            open.remove(stream);
+            return open.isEmpty() ? null : open;
+        });
+    }
+
+    /**
+     * One open emitter. Events go out in id order and each id at most once: ids at or
+     * below the last one sent are skipped, and live notifications that arrive during
+     * the replay are held back until it is done.
+     */
+    private static class Stream {
+        // A lock rather than synchronized, as in NotificationWriter: sending blocks on the socket
+        private final ReentrantLock lock = new ReentrantLock();
+        private final SseEmitter emitter;
+        private long lastSentId;
+        private List<NotificationRepository.InboxItem> held;
+
+        Stream(SseEmitter emitter, long lastSentId, boolean replaying) {
+            this.emitter = emitter;
+            this.lastSentId = lastSentId;
+            this.held = replaying ? new ArrayList<>() : null;
+        }
+
+        boolean replay(List<NotificationRepository.InboxItem> missed) {
+            lock.lock();
+            try {
+                for (NotificationRepository.InboxItem item : missed) {
+                    if (!send(item)) {
+                        return false;
+                    }
+                }
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // More may have been missed than was replayed
+        boolean resync() {
+            lock.lock();
+            try {
+                emitter.send(SseEmitter.event().name("resync").data(lastSentId));
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                return false;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Sends what was held back during the replay; false if the client is gone
+        boolean goLive() {
+            lock.lock();
+            try {
+                List<NotificationRepository.InboxItem> pending = held;
+                held = null;
+                pending.sort(Comparator.comparing(NotificationRepository.InboxItem::getId));
+                for (NotificationRepository.InboxItem item : pending) {
+                    if (!send(item)) {
+                        return false;
+                    }
+                }
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean publish(NotificationRepository.InboxItem item) {
+            lock.lock();
+            try {
+                if (held != null) {
+                    held.add(item);
+                    return true;
+                }
+                return send(item);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean heartbeat() {
+            lock.lock();
+            try {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                return false;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private boolean send(NotificationRepository.InboxItem item) {
+            if (item.getId() <= lastSentId) {
+                return true;
+            }
+            try {
+                emitter.send(SseEmitter.event()
+                        .id(String.valueOf(item.getId()))
+                        .name("notification")
+                        .data(item));
+                lastSentId = item.getId();
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                return false;
+            }
+        }
+    }
+}
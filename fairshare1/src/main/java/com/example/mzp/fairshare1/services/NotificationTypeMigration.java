@@ -0,0 +1,46 @@
+package com.example.mzp.fairshare1.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Converts notifications.type from a MySQL ENUM to VARCHAR. Databases created before
+ * the column was mapped as a string still hold it as an ENUM of the original types,
+ * which rejects newer ones such as BUDGET_ALERT; ddl-auto=update never changes the
+ * type of an existing column, so it is migrated here once.
+ */
+@Component
+public class NotificationTypeMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationTypeMigration.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Before anything else writes notifications on startup (e.g. budget alerts)
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void migrate() {
+        try {
+            List<String> types = jdbcTemplate.queryForList("select data_type from information_schema.columns "
+                    + "where table_schema = database() and table_name = 'notifications' and column_name = 'type'",
+                    String.class);
+            if (types.size() == 1 && "enum".equalsIgnoreCase(types.get(0))) {
+                jdbcTemplate.execute("alter table notifications modify column type varchar(32) not null");
+                log.info("Changed notifications.type from ENUM to VARCHAR");
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not migrate notifications.type column: {}", e.getMessage());
+        }
+    }
+}
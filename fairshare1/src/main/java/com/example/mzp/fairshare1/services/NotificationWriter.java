@@ -0,0 +1,272 @@
+package com.example.mzp.fairshare1.services;
+
+import com.example.mzp.fairshare1.entity.Notification;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Persists notifications off the request thread.
+ * Producers put rows on a bounded queue; a single writer thread drains it and
+ * inserts each batch with one JDBC batch statement (rewritten by the MySQL
+ * driver into a multi-row INSERT). When the queue is full, producers block
+ * until the writer catches up. A batch that fails is retried once and then
+ * written row by row, so a bad row costs only itself.
+ */
+@Component
+public class NotificationWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationWriter.class);
+
+    private static final String INSERT_SQL = "insert into notifications "
+            + "(recipient_id, sender_id, group_id, type, status, created_at, is_read, message) "
+            + "values (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${fairshare.notifications.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${fairshare.notifications.batch-size:500}")
+    private int batchSize;
+
+    @Value("${fairshare.notifications.flush-interval-ms:50}")
+    private long flushIntervalMs;
+
+    private TransactionTemplate insertTransaction;
+    private BlockingQueue<Notification> queue;
+    private Thread writerThread;
+    private volatile boolean running;
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private volatile Consumer<List<Notification>> persistedListener = rows -> {
+    };
+
+    // Backpressure and throughput metrics
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong producerWaits = new AtomicLong();
+    private final AtomicLong producerWaitNanos = new AtomicLong();
+    private volatile int largestBatch;
+
+    @PostConstruct
+    public void start() {
+        // Separate from any transaction of a producer writing through during shutdown
+        insertTransaction = new TransactionTemplate(transactionManager);
+        insertTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        writerThread = new Thread(this::drainLoop, "notification-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Stop accepting work and write out everything still queued
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writerThread.interrupt();
+        writerThread.join(TimeUnit.SECONDS.toMillis(30));
+        // Anything left behind if the writer did not finish in time
+        flush();
+    }
+
+    /**
+     * Called with every batch after it has been inserted; ids are populated
+     */
+    public void onPersisted(Consumer<List<Notification>> listener) {
+        this.persistedListener = listener;
+    }
+
+    public void enqueue(Notification notification) {
+        if (!running) {
+            // Shutting down: write through so nothing is lost
+            writeBatch(List.of(notification));
+            return;
+        }
+        enqueued.incrementAndGet();
+        if (!queue.offer(notification)) {
+            producerWaits.incrementAndGet();
+            long start = System.nanoTime();
+            try {
+                // Waits in steps so that a shutdown meanwhile is noticed; the writer is gone then
+                while (!queue.offer(notification, flushIntervalMs, TimeUnit.MILLISECONDS)) {
+                    if (!running) {
+                        writeBatch(List.of(notification));
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while queueing notification", e);
+            } finally {
+                producerWaitNanos.addAndGet(System.nanoTime() - start);
+            }
+        }
+        // shutdown() may have stopped the writer and done its final flush between the
+        // check above and the offer; then nobody else will drain this row
+        if (!running) {
+            flush();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", queue.size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("enqueued", enqueued.get());
+        stats.put("written", written.get());
+        stats.put("failed", failed.get());
+        stats.put("batches", batches.get());
+        stats.put("largestBatch", largestBatch);
+        stats.put("producerWaits", producerWaits.get());
+        stats.put("producerWaitMillis", TimeUnit.NANOSECONDS.toMillis(producerWaitNanos.get()));
+        return stats;
+    }
+
+    private void drainLoop() {
+        while (running) {
+            try {
+                Notification first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<Notification> batch = new ArrayList<>(Math.min(batchSize, queue.size() + 1));
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                // shutdown() interrupts us; remaining rows are flushed below
+            }
+        }
+        flush();
+    }
+
+    // A lock rather than synchronized: a virtual thread blocked on JDBC inside a
+    // synchronized block would pin its carrier thread
+    private void flush() {
+        flushLock.lock();
+        try {
+            List<Notification> batch = new ArrayList<>();
+            while (queue.drainTo(batch, batchSize) > 0) {
+                writeBatch(batch);
+                batch = new ArrayList<>();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // A failed batch is retried once as a whole; if it fails again the rows are inserted
+    // one at a time so that only the rows the database rejects are dropped
+    private void writeBatch(List<Notification> batch) {
+        for (int attempt = 1; attempt <= 2; attempt++) {
+            try {
+                insert(batch);
+            } catch (RuntimeException e) {
+                log.warn("Attempt {} to write {} notifications failed", attempt, batch.size(), e);
+                continue;
+            }
+            persisted(batch);
+            return;
+        }
+        List<Notification> inserted = new ArrayList<>(batch.size());
+        for (Notification notification : batch) {
+            try {
+                insert(List.of(notification));
+                inserted.add(notification);
+            } catch (RuntimeException e) {
+                failed.incrementAndGet();
+                log.error("Dropped {} notification for user {}", notification.getType(),
+                        notification.getRecipient().getId(), e);
+            }
+        }
+        if (!inserted.isEmpty()) {
+            persisted(inserted);
+        }
+    }
+
+    // Each attempt runs in its own transaction, so a failure leaves no rows behind to
+    // be duplicated by the retry (the driver may split a rewritten batch into several statements)
+    private void insert(List<Notification> batch) {
+        insertTransaction.executeWithoutResult(status -> {
+            KeyHolder keys = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(
+                    con -> con.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            bind(ps, batch.get(i));
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return batch.size();
+                        }
+                    },
+                    keys);
+
+            List<Map<String, Object>> keyList = keys.getKeyList();
+            for (int i = 0; i < batch.size() && i < keyList.size(); i++) {
+                Object id = keyList.get(i).values().iterator().next();
+                batch.get(i).setId(((Number) id).longValue());
+            }
+        });
+    }
+
+    private void persisted(List<Notification> batch) {
+        written.addAndGet(batch.size());
+        batches.incrementAndGet();
+        largestBatch = Math.max(largestBatch, batch.size());
+        persistedListener.accept(batch);
+    }
+
+    private static void bind(PreparedStatement ps, Notification n) throws SQLException {
+        ps.setLong(1, n.getRecipient().getId());
+        ps.setLong(2, n.getSender().getId());
+        if (n.getGroup() != null) {
+            ps.setLong(3, n.getGroup().getId());
+        } else {
+            ps.setNull(3, Types.BIGINT);
+        }
+        ps.setString(4, n.getType().name());
+        ps.setString(5, n.getStatus().name());
+        ps.setTimestamp(6, Timestamp.valueOf(n.getCreatedAt()));
+        ps.setBoolean(7, n.isRead());
+        ps.setString(8, n.getMessage());
+    }
+}
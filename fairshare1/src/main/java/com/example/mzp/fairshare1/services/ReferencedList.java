@@ -0,0 +1,50 @@
+package com.example.mzp.fairshare1.services;
+
+import com.example.mzp.fairshare1.repositories.UserRepository;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * List response whose rows refer to users by id. Each referenced user is sent
+ * once in the users table instead of being nested in every row.
+ */
+public class ReferencedList<T> {
+    private final List<T> items;
+    private final Map<Long, UserRepository.UserSummary> users;
+
+    public ReferencedList(List<T> items, Map<Long, UserRepository.UserSummary> users) {
+        this.items = items;
+        this.users = users;
+    }
+
+    /**
+     * Look up every user the rows point at with a single query
+     */
+    public static <T> ReferencedList<T> of(List<T> items, Function<T, Long> userId, UserRepository userRepository) {
+        return new ReferencedList<>(items, loadUsers(items.stream().map(userId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()), userRepository));
+    }
+
+    static Map<Long, UserRepository.UserSummary> loadUsers(Collection<Long> ids, UserRepository userRepository) {
+        Map<Long, UserRepository.UserSummary> users = new LinkedHashMap<>();
+        if (!ids.isEmpty()) {
+            userRepository.findSummariesByIdIn(ids).forEach(user -> users.put(user.getId(), user));
+        }
+        return users;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public Map<Long, UserRepository.UserSummary> getUsers() {
+        return users;
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.mzp.fairshare1.services;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index over the titles and descriptions of one group's chores and
+ * expenses. Terms are kept sorted, so a query word is matched as a prefix with a
+ * range lookup instead of a scan over every document.
+ */
+class SearchIndex {
+
+    static final String CHORE = "chore";
+    static final String EXPENSE = "expense";
+
+    // Shorter query words only match whole terms; "a" would otherwise match most of the index
+    static final int MIN_PREFIX_LENGTH = 2;
+
+    static final int MAX_QUERY_TERMS = 8;
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    // A whole-word match counts for more than the same word matched as a prefix
+    private static final int EXACT_BOOST = 2;
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    // Best score first, then the newest document
+    private static final Comparator<Hit> RANKED = Comparator.comparingInt(Hit::getScore).reversed()
+            .thenComparing(Comparator.comparingLong(Hit::getId).reversed())
+            .thenComparing(Hit::getType);
+
+    // term -> document -> weighted occurrences of the term in it
+    private final NavigableMap<String, Map<Doc, Integer>> postings = new TreeMap<>();
+
+    // Every indexed document with the terms it was indexed under, so it can be
+    // taken out again without knowing its previous text
+    private final Map<Doc, Doc> docs = new HashMap<>();
+
+    /**
+     * Index a document, replacing whatever it was indexed under before
+     */
+    synchronized void put(String type, Long id, String title, String description, Long paidById, boolean split) {
+        Doc doc = new Doc(type, id, paidById, split);
+        remove(type, id);
+        Map<String, Integer> terms = new HashMap<>();
+        tokenize(title).forEach(term -> terms.merge(term, TITLE_WEIGHT, Integer::sum));
+        tokenize(description).forEach(term -> terms.merge(term, DESCRIPTION_WEIGHT, Integer::sum));
+        doc.terms = terms.keySet().toArray(new String[0]);
+        terms.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(doc, weight));
+        docs.put(doc, doc);
+    }
+
+    synchronized void remove(String type, Long id) {
+        Doc doc = docs.remove(new Doc(type, id, null, false));
+        if (doc == null) {
+            return;
+        }
+        for (String term : doc.terms) {
+            Map<Doc, Integer> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(doc);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    synchronized int size() {
+        return docs.size();
+    }
+
+    /**
+     * Documents containing every word of the query (the words as prefixes), best
+     * first. Only documents the filter accepts are returned.
+     */
+    synchronized List<Hit> search(String query, Predicate<Hit> filter) {
+        List<String> words = new ArrayList<>(tokenize(query));
+        if (words.isEmpty()) {
+            return List.of();
+        }
+        if (words.size() > MAX_QUERY_TERMS) {
+            words = words.subList(0, MAX_QUERY_TERMS);
+        }
+        Map<Doc, Integer> scores = null;
+        for (String word : words) {
+            Map<Doc, Integer> matches = match(word, scores);
+            if (matches.isEmpty()) {
+                return List.of();
+            }
+            scores = matches;
+        }
+        List<Hit> hits = new ArrayList<>(scores.size());
+        scores.forEach((doc, score) -> {
+            Hit hit = new Hit(doc, score);
+            if (filter.test(hit)) {
+                hits.add(hit);
+            }
+        });
+        hits.sort(RANKED);
+        return hits;
+    }
+
+    // Score of each document for one query word (its best matching term), added to the
+    // scores so far. After the first word only documents already matched are kept.
+    private Map<Doc, Integer> match(String word, Map<Doc, Integer> scores) {
+        Map<String, Map<Doc, Integer>> terms = word.length() < MIN_PREFIX_LENGTH
+                ? postings.subMap(word, true, word, true)
+                : postings.subMap(word, true, word + Character.MAX_VALUE, false);
+        Map<Doc, Integer> best = new HashMap<>();
+        terms.forEach((term, posting) -> {
+            int boost = term.equals(word) ? EXACT_BOOST : 1;
+            posting.forEach((doc, weight) -> {
+                if (scores == null || scores.containsKey(doc)) {
+                    best.merge(doc, weight * boost, Math::max);
+                }
+            });
+        });
+        if (scores != null) {
+            best.replaceAll((doc, score) -> score + scores.get(doc));
+        }
+        return best;
+    }
+
+    /**
+     * Lower-cased words of a text with accents removed, each once
+     */
+    static Set<String> tokenize(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text == null || text.isBlank()) {
+            return terms;
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        for (String term : SEPARATORS.split(folded)) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    // Identified by type and id; the rest is what search needs to filter without a query
+    private static class Doc {
+        private final String type;
+        private final Long id;
+        private final Long paidById;
+        private final boolean split;
+        private String[] terms;
+
+        Doc(String type, Long id, Long paidById, boolean split) {
+            this.type = type;
+            this.id = id;
+            this.paidById = paidById;
+            this.split = split;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Doc)) {
+                return false;
+            }
+            Doc other = (Doc) o;
+            return type.equals(other.type) && id.equals(other.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * type.hashCode() + id.hashCode();
+        }
+    }
+
+    static class Hit {
+        private final Doc doc;
+        private final int score;
+
+        Hit(Doc doc, int score) {
+            this.doc = doc;
+            this.score = score;
+        }
+
+        String getType() {
+            return doc.type;
+        }
+
+        long getId() {
+            return doc.id;
+        }
+
+        Long getPaidById() {
+            return doc.paidById;
+        }
+
+        boolean isSplit() {
+            return doc.split;
+        }
+
+        int getScore() {
+            return score;
+        }
+    }
+}
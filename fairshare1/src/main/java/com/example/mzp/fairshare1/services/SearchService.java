@@ -0,0 +1,237 @@
+package com.example.mzp.fairshare1.services;
+
+import com.example.mzp.fairshare1.entity.Chore;
+import com.example.mzp.fairshare1.entity.Expense;
+import com.example.mzp.fairshare1.repositories.ChoreRepository;
+import com.example.mzp.fairshare1.repositories.ExpenseRepository;
+import com.example.mzp.fairshare1.repositories.GroupRepository;
+import com.example.mzp.fairshare1.repositories.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Full-text search over a group's chores and expenses. Each group has an
+ * in-memory SearchIndex, built from the database at startup (or on first use)
+ * and kept current by ChoreService and ExpenseService; a search reads only the
+ * index and then the matched rows of the requested page by id.
+ */
+@Service
+public class SearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchService.class);
+
+    public static final int MAX_PAGE_SIZE = 50;
+
+    @Autowired
+    private ChoreRepository choreRepository;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final Map<Long, SearchIndex> indexes = new ConcurrentHashMap<>();
+
+    /**
+     * One page of the chores and expenses matching every word of the query, best
+     * match first. With a userId, only split expenses and the ones that user paid
+     * are included, as in the expense list.
+     */
+    public SearchResults search(Long groupId, Long userId, String query, int page, int size) {
+        if (query == null || query.isBlank()) {
+            throw new RuntimeException("Search text is required");
+        }
+        if (page < 0) {
+            throw new RuntimeException("Page must not be negative");
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new RuntimeException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (!groupRepository.existsById(groupId)) {
+            throw new RuntimeException("Group not found");
+        }
+        SearchIndex index = getIndex(groupId);
+        List<SearchIndex.Hit> hits = index.search(query, hit -> userId == null
+                || !SearchIndex.EXPENSE.equals(hit.getType()) || hit.isSplit() || userId.equals(hit.getPaidById()));
+
+        int from = (int) Math.min((long) page * size, hits.size());
+        List<SearchIndex.Hit> pageHits = hits.subList(from, Math.min(from + size, hits.size()));
+        Set<Long> choreIds = new HashSet<>();
+        Set<Long> expenseIds = new HashSet<>();
+        for (SearchIndex.Hit hit : pageHits) {
+            (SearchIndex.CHORE.equals(hit.getType()) ? choreIds : expenseIds).add(hit.getId());
+        }
+        Map<Long, ChoreRepository.ChoreRow> chores = choreIds.isEmpty() ? Map.of()
+                : choreRepository.findRowsByIdIn(choreIds).stream()
+                        .collect(Collectors.toMap(ChoreRepository.ChoreRow::getId, Function.identity()));
+        Map<Long, ExpenseRepository.ExpenseRow> expenses = expenseIds.isEmpty() ? Map.of()
+                : expenseRepository.findRowsByIdIn(expenseIds).stream()
+                        .collect(Collectors.toMap(ExpenseRepository.ExpenseRow::getId, Function.identity()));
+
+        List<SearchHit> items = new ArrayList<>(pageHits.size());
+        Set<Long> userIds = new HashSet<>();
+        for (SearchIndex.Hit hit : pageHits) {
+            if (SearchIndex.CHORE.equals(hit.getType())) {
+                ChoreRepository.ChoreRow row = chores.get(hit.getId());
+                if (row != null) {
+                    items.add(new SearchHit(hit.getType(), hit.getScore(), row));
+                    userIds.add(row.getAssignedToId());
+                    continue;
+                }
+            } else {
+                ExpenseRepository.ExpenseRow row = expenses.get(hit.getId());
+                if (row != null) {
+                    items.add(new SearchHit(hit.getType(), hit.getScore(), row));
+                    userIds.add(row.getPaidById());
+                    continue;
+                }
+            }
+            // Removed without the index hearing of it, e.g. by a bulk delete
+            index.remove(hit.getType(), hit.getId());
+        }
+        userIds.remove(null);
+        return new SearchResults(items, ReferencedList.loadUsers(userIds, userRepository), hits.size(), page, size);
+    }
+
+    public void onChoreSaved(Chore chore) {
+        update(chore.getGroup().getId(), index -> index.put(SearchIndex.CHORE, chore.getId(), chore.getTitle(),
+                chore.getDescription(), null, false));
+    }
+
+    public void onChoreDeleted(Chore chore) {
+        update(chore.getGroup().getId(), index -> index.remove(SearchIndex.CHORE, chore.getId()));
+    }
+
+    public void onExpenseSaved(Expense expense) {
+        Long paidById = expense.getPaidBy() != null ? expense.getPaidBy().getId() : null;
+        update(expense.getGroup().getId(), index -> index.put(SearchIndex.EXPENSE, expense.getId(),
+                expense.getTitle(), expense.getDescription(), paidById, Boolean.TRUE.equals(expense.getIsSplit())));
+    }
+
+    public void onExpenseDeleted(Expense expense) {
+        update(expense.getGroup().getId(), index -> index.remove(SearchIndex.EXPENSE, expense.getId()));
+    }
+
+    /**
+     * Drop a group's index, e.g. after rows were changed in bulk; it is rebuilt on
+     * the next search
+     */
+    public void evictGroup(Long groupId) {
+        indexes.remove(groupId);
+    }
+
+    /**
+     * Build every group's index once the application is up, so the first searches
+     * do not wait for it
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIndexes() {
+        try {
+            int documents = 0;
+            for (Long groupId : groupRepository.findAllIds()) {
+                documents += getIndex(groupId).size();
+            }
+            log.info("Indexed {} chores and expenses of {} groups for search", documents, indexes.size());
+        } catch (DataAccessException e) {
+            log.warn("Could not build search indexes: {}", e.getMessage());
+        }
+    }
+
+    // A change to an index that is still being built waits for the build, so it is not
+    // lost; groups without an index pick the change up when theirs is built
+    private void update(Long groupId, Consumer<SearchIndex> change) {
+        indexes.computeIfPresent(groupId, (id, index) -> {
+            change.accept(index);
+            return index;
+        });
+    }
+
+    private SearchIndex getIndex(Long groupId) {
+        return indexes.computeIfAbsent(groupId, id -> {
+            SearchIndex index = new SearchIndex();
+            for (ChoreRepository.ChoreRow row : choreRepository.findRowsByGroupId(id)) {
+                index.put(SearchIndex.CHORE, row.getId(), row.getTitle(), row.getDescription(), null, false);
+            }
+            for (ExpenseRepository.ExpenseRow row : expenseRepository.findRowsByGroupId(id, null)) {
+                index.put(SearchIndex.EXPENSE, row.getId(), row.getTitle(), row.getDescription(), row.getPaidById(),
+                        Boolean.TRUE.equals(row.getIsSplit()));
+            }
+            return index;
+        });
+    }
+
+    /**
+     * A matched chore or expense: item is its list row
+     */
+    public static class SearchHit {
+        private final String type;
+        private final int score;
+        private final Object item;
+
+        public SearchHit(String type, int score, Object item) {
+            this.type = type;
+            this.score = score;
+            this.item = item;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        public Object getItem() {
+            return item;
+        }
+    }
+
+    /**
+     * One page of hits; total counts the matches on every page
+     */
+    public static class SearchResults extends ReferencedList<SearchHit> {
+        private final int total;
+        private final int page;
+        private final int size;
+
+        public SearchResults(List<SearchHit> items, Map<Long, UserRepository.UserSummary> users, int total, int page,
+                int size) {
+            super(items, users);
+            this.total = total;
+            this.page = page;
+            this.size = size;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public int getPage() {
+            return page;
+        }
+
+        public int getSize() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.example.mzp.fairshare1.services;
+
+import com.example.mzp.fairshare1.entity.Group;
+import com.example.mzp.fairshare1.entity.User;
+import com.example.mzp.fairshare1.repositories.ExpenseRepository;
+import com.example.mzp.fairshare1.repositories.GroupRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+@Service
+public class SettlementService {
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    // Computed settlements per group id, dropped whenever expenses or members change
+    private final Map<Long, Settlement> settlements = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Net balance of every member and the transfers that settle the group.
+     * Split expenses are shared equally by all current members and credited to
+     * the payer; unsplit expenses are personal and do not create debts.
+     */
+    public Settlement getSettlement(Long groupId) {
+        return settlements.computeIfAbsent(groupId,
+                id -> readOnlyTransaction.execute(status -> computeSettlement(id)));
+    }
+
+    public void evictGroup(Long groupId) {
+        settlements.remove(groupId);
+    }
+
+    private Settlement computeSettlement(Long groupId) {
+        Group group = groupRepository.findById(groupId)
+                .orElseThrow(() -> new RuntimeException("Group not found"));
+
+        // Members in id order so rounding remainders land deterministically
+        List<User> members = new ArrayList<>(group.getMembers());
+        members.sort(Comparator.comparing(User::getId));
+        Map<Long, Balance> balances = new HashMap<>();
+        for (User member : members) {
+            balances.put(member.getId(), new Balance(member.getId(), member.getFullName()));
+        }
+
+        // All amounts are handled in cents to keep the books balanced exactly
+        try (Stream<ExpenseRepository.ExpenseShare> shares = expenseRepository.streamSharesByGroupId(groupId)) {
+            shares.forEach(share -> {
+                if (!Boolean.TRUE.equals(share.getIsSplit()) || share.getAmount() == null
+                        || share.getPaidById() == null || members.isEmpty()) {
+                    return;
+                }
+                long cents = Math.round(share.getAmount() * 100);
+                balances.computeIfAbsent(share.getPaidById(), id -> new Balance(id, null)).addPaid(cents);
+
+                long each = cents / members.size();
+                long remainder = cents % members.size();
+                for (int i = 0; i < members.size(); i++) {
+                    balances.get(members.get(i).getId()).addShare(each + (i < remainder ? 1 : 0));
+                }
+            });
+        }
+
+        return new Settlement(groupId, new ArrayList<>(balances.values()), simplifyDebts(balances.values()));
+    }
+
+    /**
+     * Greedy debt simplification: repeatedly settle the largest debtor against
+     * the largest creditor. Produces at most (members - 1) transfers.
+     */
+    static List<Transfer> simplifyDebts(Iterable<Balance> balances) {
+        Comparator<long[]> largestFirst = (a, b) -> Long.compare(b[1], a[1]);
+        // Entries are {userId, outstanding cents}
+        PriorityQueue<long[]> creditors = new PriorityQueue<>(largestFirst);
+        PriorityQueue<long[]> debtors = new PriorityQueue<>(largestFirst);
+        Map<Long, String> names = new HashMap<>();
+
+        for (Balance balance : balances) {
+            names.put(balance.getUserId(), balance.getFullName());
+            long net = balance.paidCents - balance.shareCents;
+            if (net > 0) {
+                creditors.add(new long[] { balance.getUserId(), net });
+            } else if (net < 0) {
+                debtors.add(new long[] { balance.getUserId(), -net });
+            }
+        }
+
+        List<Transfer> transfers = new ArrayList<>();
+        while (!creditors.isEmpty() && !debtors.isEmpty()) {
+            long[] creditor = creditors.poll();
+            long[] debtor = debtors.poll();
+            long amount = Math.min(creditor[1], debtor[1]);
+            transfers.add(new Transfer(debtor[0], names.get(debtor[0]), creditor[0], names.get(creditor[0]),
+                    amount / 100.0));
+
+            creditor[1] -= amount;
+            debtor[1] -= amount;
+            if (creditor[1] > 0) {
+                creditors.add(creditor);
+            }
+            if (debtor[1] > 0) {
+                debtors.add(debtor);
+            }
+        }
+        return transfers;
+    }
+
+    /**
+     * Balances and settling transfers for one group
+     */
+    public static class Settlement {
+        private final Long groupId;
+        private final List<Balance> balances;
+        private final List<Transfer> transfers;
+
+        public Settlement(Long groupId, List<Balance> balances, List<Transfer> transfers) {
+            this.groupId = groupId;
+            this.balances = balances;
+            this.transfers = transfers;
+        }
+
+        public Long getGroupId() {
+            return groupId;
+        }
+
+        public List<Balance> getBalances() {
+            return balances;
+        }
+
+        public List<Transfer> getTransfers() {
+            return transfers;
+        }
+    }
+
+    /**
+     * What a member paid, their share of split expenses, and the difference
+     */
+    public static class Balance {
+        private final Long userId;
+        private final String fullName;
+        private long paidCents;
+        private long shareCents;
+
+        public Balance(Long userId, String fullName) {
+            this.userId = userId;
+            this.fullName = fullName;
+        }
+
+        void addPaid(long cents) {
+            paidCents += cents;
+        }
+
+        void addShare(long cents) {
+            shareCents += cents;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public String getFullName() {
+            return fullName;
+        }
+
+        public double getPaid() {
+            return paidCents / 100.0;
+        }
+
+        public double getShare() {
+            return shareCents / 100.0;
+        }
+
+        // Positive: the group owes this member. Negative: this member owes the group.
+        public double getNet() {
+            return (paidCents - shareCents) / 100.0;
+        }
+    }
+
+    /**
+     * A single payment from one member to another
+     */
+    public static class Transfer {
+        private final Long fromUserId;
+        private final String fromName;
+        private final Long toUserId;
+        private final String toName;
+        private final double amount;
+
+        public Transfer(Long fromUserId, String fromName, Long toUserId, String toName, double amount) {
+            this.fromUserId = fromUserId;
+            this.fromName = fromName;
+            this.toUserId = toUserId;
+            this.toName = toName;
+            this.amount = amount;
+        }
+
+        public Long getFromUserId() {
+            return fromUserId;
+        }
+
+        public String getFromName() {
+            return fromName;
+        }
+
+        public Long getToUserId() {
+            return toUserId;
+        }
+
+        public String getToName() {
+            return toName;
+        }
+
+        public double getAmount() {
+            return amount;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.mzp.fairshare1.controller;
+
+import com.example.mzp.fairshare1.entity.Chore;
+import com.example.mzp.fairshare1.entity.Group;
+import com.example.mzp.fairshare1.entity.User;
+import com.example.mzp.fairshare1.repositories.ChoreRepository;
+import com.example.mzp.fairshare1.repositories.GroupRepository;
+import com.example.mzp.fairshare1.repositories.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Same properties as the other controller tests, so they share one context and database
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:controllers;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "fairshare.avatars.dir=target/test-avatars"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ChoreControllerTest {
+
+    private static final int ROWS = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private ChoreRepository choreRepository;
+
+    private Group group;
+    private final List<Chore> chores = new ArrayList<>();
+
+    @BeforeAll
+    public void seed() {
+        List<User> members = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            members.add(new User("Member " + i, "chores" + i + "@example.com", "secret"));
+        }
+        members = userRepository.saveAll(members);
+        group = new Group("Chore flat", "CHC000001");
+        members.forEach(group::addMember);
+        group.setOwner(members.get(0));
+        group = groupRepository.save(group);
+        for (int i = 0; i < ROWS; i++) {
+            chores.add(choreRepository.save(new Chore("Chore " + i, null, null, "pending", members.get(i), group)));
+        }
+    }
+
+    // Edits take the same payload as a new chore, including the older combined dueDate
+    @Test
+    public void testChoreUpdateAcceptsCombinedDueDateAndBadDatesAreRejected() throws Exception {
+        Chore chore = chores.get(1);
+        String body = mockMvc.perform(put("/api/chores/" + chore.getId()).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"Chore 1\",\"status\":\"pending\",\"dueDate\":\"2026-03-01 18:30\","
+                        + "\"assignedTo\":{\"id\":" + chore.getAssignedTo().getId() + "}}"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        assertTrue(body.contains("\"dueDate\":\"2026-03-01\""), body);
+        assertTrue(body.contains("\"dueTime\":\"18:30\""), body);
+
+        mockMvc.perform(put("/api/chores/" + chore.getId()).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"Chore 1\",\"status\":\"pending\",\"dueDate\":\"01/03/2026\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // Exports check the group and then stream every row from one query
+    @Test
+    public void testChoreExportWritesOneJsonObjectPerLine() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        String url = "/api/chores/group/" + group.getId() + "/export?format=ndjson";
+        MvcResult result = mockMvc.perform(get(url)).andExpect(request().asyncStarted()).andReturn();
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition",
+                        "attachment; filename=\"group-" + group.getId() + "-chores.ndjson\""));
+        assertTrue(statistics.getPrepareStatementCount() <= 2);
+
+        String[] lines = new String(result.getResponse().getContentAsByteArray(), StandardCharsets.UTF_8)
+                .split("\n");
+        assertEquals(ROWS, lines.length);
+        assertTrue(lines[0].contains("\"title\":\"Chore 0\""), lines[0]);
+        assertTrue(lines[0].contains("\"assignedToName\":\"Member 0\""), lines[0]);
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.mzp.fairshare1.controller;
+
+import com.example.mzp.fairshare1.entity.Chore;
+import com.example.mzp.fairshare1.entity.Expense;
+import com.example.mzp.fairshare1.entity.Group;
+import com.example.mzp.fairshare1.entity.Notification;
+import com.example.mzp.fairshare1.entity.User;
+import com.example.mzp.fairshare1.repositories.ChoreRepository;
+import com.example.mzp.fairshare1.repositories.ExpenseRepository;
+import com.example.mzp.fairshare1.repositories.GroupRepository;
+import com.example.mzp.fairshare1.repositories.NotificationRepository;
+import com.example.mzp.fairshare1.repositories.UserRepository;
+import com.example.mzp.fairshare1.services.GroupService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Guards against N+1 loading: each list endpoint must run a fixed number of SQL
+ * statements no matter how many rows, members and referenced users it returns,
+ * and a conditional GET for an unchanged group only looks up its version.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:querycount;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "fairshare.avatars.dir=target/test-avatars"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class EndpointQueryCountTest {
+
+    private static final int ROWS = 20;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private ChoreRepository choreRepository;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private GroupService groupService;
+
+    private User owner;
+    private Group group;
+
+    @BeforeAll
+    public void seed() {
+        List<User> members = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            members.add(new User("Member " + i, "member" + i + "@example.com", "secret"));
+        }
+        members = userRepository.saveAll(members);
+        owner = members.get(0);
+
+        // The owner belongs to several groups, each with every member
+        List<Group> groups = new ArrayList<>();
+        for (int g = 0; g < 3; g++) {
+            Group next = new Group("Group " + g, "QCT00000" + g);
+            members.forEach(next::addMember);
+            next.setOwner(owner);
+            groups.add(groupRepository.save(next));
+        }
+        group = groups.get(0);
+
+        for (int i = 0; i < ROWS; i++) {
+            User member = members.get(i);
+            choreRepository.save(new Chore("Chore " + i, null, null, i % 2 == 0 ? "pending" : "completed",
+                    member, group));
+
+            Expense expense = new Expense();
+            expense.setTitle("Expense " + i);
+            expense.setAmount(10.0 + i);
+            expense.setIsSplit(true);
+            expense.setPaidBy(member);
+            expense.setGroup(group);
+            expenseRepository.save(expense);
+
+            Notification notification = new Notification();
+            notification.setRecipient(owner);
+            notification.setSender(member);
+            notification.setGroup(groups.get(i % groups.size()));
+            notification.setType(Notification.NotificationType.EXPENSE_ADDED);
+            notification.setMessage("Notification " + i);
+            notificationRepository.save(notification);
+        }
+    }
+
+    @Test
+    public void testUserGroupsLoadMembersInOneQuery() throws Exception {
+        assertStatementsAtMost(3, "/api/groups/user/" + owner.getId());
+    }
+
+    // Group-scoped GETs first look up the group version for their ETag; the bounds
+    // from here on include that one statement
+    @Test
+    public void testChoreListIsBounded() throws Exception {
+        assertStatementsAtMost(3, "/api/chores/group/" + group.getId());
+    }
+
+    @Test
+    public void testExpenseListIsBounded() throws Exception {
+        assertStatementsAtMost(3, "/api/expenses/group/" + group.getId() + "?userId=" + owner.getId());
+    }
+
+    @Test
+    public void testDashboardIsBounded() throws Exception {
+        assertStatementsAtMost(7, "/api/groups/" + group.getId() + "/dashboard?userId=" + owner.getId());
+    }
+
+    @Test
+    public void testBudgetReadsTheRollupOnly() throws Exception {
+        assertStatementsAtMost(3, "/api/groups/" + group.getId() + "/budget");
+    }
+
+    @Test
+    public void testNotificationListLoadsSendersAndGroupsInOneQuery() throws Exception {
+        assertStatementsAtMost(2, "/api/notifications/user/" + owner.getId());
+    }
+
+    @Test
+    public void testInboxIsOneQuery() throws Exception {
+        assertStatementsAtMost(1, "/api/notifications/user/" + owner.getId() + "/inbox");
+    }
+
+    @Test
+    public void testUnchangedGroupAnswers304AfterOneQuery() throws Exception {
+        for (String url : List.of("/api/chores/group/" + group.getId(),
+                "/api/expenses/group/" + group.getId() + "?userId=" + owner.getId(),
+                "/api/groups/" + group.getId() + "/dashboard?userId=" + owner.getId())) {
+            String etag = mockMvc.perform(get(url)).andExpect(status().isOk())
+                    .andReturn().getResponse().getHeader("ETag");
+            assertNotNull(etag, url);
+
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            statistics.clear();
+            mockMvc.perform(get(url).header("If-None-Match", etag)).andExpect(status().isNotModified());
+            assertEquals(1, statistics.getPrepareStatementCount(), url);
+        }
+    }
+
+    @Test
+    public void testGroupChangeInvalidatesEtag() throws Exception {
+        String url = "/api/chores/group/" + group.getId();
+        String etag = mockMvc.perform(get(url)).andReturn().getResponse().getHeader("ETag");
+
+        groupService.updateMonthlyBudget(group.getId(), 250.0);
+
+        String changed = mockMvc.perform(get(url).header("If-None-Match", etag)).andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotEquals(etag, changed);
+    }
+
+    private void assertStatementsAtMost(long limit, String url) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= limit, url + " ran " + statements + " statements, expected at most " + limit);
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.mzp.fairshare1.controller;
+
+import com.example.mzp.fairshare1.entity.Expense;
+import com.example.mzp.fairshare1.entity.Group;
+import com.example.mzp.fairshare1.entity.User;
+import com.example.mzp.fairshare1.repositories.ExpenseRepository;
+import com.example.mzp.fairshare1.repositories.GroupRepository;
+import com.example.mzp.fairshare1.repositories.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Same properties as the other controller tests, so they share one context and database
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:controllers;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "fairshare.avatars.dir=target/test-avatars"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ExpenseControllerTest {
+
+    private static final int ROWS = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    private Group group;
+
+    @BeforeAll
+    public void seed() {
+        List<User> members = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            members.add(new User("Member " + i, "expenses" + i + "@example.com", "secret"));
+        }
+        members = userRepository.saveAll(members);
+        group = new Group("Expense flat", "EXC000001");
+        members.forEach(group::addMember);
+        group.setOwner(members.get(0));
+        group = groupRepository.save(group);
+        for (int i = 0; i < ROWS; i++) {
+            Expense expense = new Expense();
+            expense.setTitle("Expense " + i);
+            expense.setAmount(10.0 + i);
+            expense.setIsSplit(true);
+            expense.setPaidBy(members.get(i));
+            expense.setGroup(group);
+            expenseRepository.save(expense);
+        }
+    }
+
+    @Test
+    public void testBadDateIsRejected() throws Exception {
+        mockMvc.perform(post("/api/expenses/group/" + group.getId()).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"Lunch\",\"amount\":5,\"date\":\"2026-13-45\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // Exports check the group and then stream every row from one query
+    @Test
+    public void testExpenseExportStreamsFromOneQuery() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        String url = "/api/expenses/group/" + group.getId() + "/export?format=csv&gzip=true";
+        MvcResult result = mockMvc.perform(get(url)).andExpect(request().asyncStarted()).andReturn();
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition",
+                        "attachment; filename=\"group-" + group.getId() + "-expenses.csv.gz\""));
+        assertTrue(statistics.getPrepareStatementCount() <= 2);
+
+        byte[] body = result.getResponse().getContentAsByteArray();
+        String csv = new String(new GZIPInputStream(new ByteArrayInputStream(body)).readAllBytes(),
+                StandardCharsets.UTF_8);
+        String[] lines = csv.split("\r\n");
+        assertEquals(ROWS + 1, lines.length);
+        assertEquals("id,date,title,description,amount,split,paid_by_id,paid_by", lines[0]);
+        assertTrue(lines[1].contains(",Expense 0,,10.00,true,"), lines[1]);
+    }
+}
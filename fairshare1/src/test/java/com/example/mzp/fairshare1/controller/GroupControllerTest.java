@@ -0,0 +1,55 @@
+package com.example.mzp.fairshare1.controller;
+
+import com.example.mzp.fairshare1.entity.Group;
+import com.example.mzp.fairshare1.entity.User;
+import com.example.mzp.fairshare1.repositories.UserRepository;
+import com.example.mzp.fairshare1.services.GroupService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Same properties as the other controller tests, so they share one context and database
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:controllers;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "fairshare.avatars.dir=target/test-avatars"
+})
+@AutoConfigureMockMvc
+public class GroupControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private GroupService groupService;
+
+    @Test
+    public void testDashboardReferencesPeopleWithoutTheirPasswords() throws Exception {
+        User owner = userRepository.save(new User("Owner", "owner.dashboard@example.com", "secret"));
+        User member = userRepository.save(new User("Member", "member.dashboard@example.com", "secret"));
+        Group group = groupService.createGroup("Dashboard flat", owner);
+        groupService.addMember(group.getId(), member);
+
+        String body = mockMvc.perform(get("/api/groups/" + group.getId() + "/dashboard"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        assertFalse(body.contains("password"), body);
+        assertFalse(body.contains("secret"), body);
+        assertTrue(body.contains("\"ownerId\":" + owner.getId()), body);
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.mzp.fairshare1.services;
+
+import com.example.mzp.fairshare1.entity.Expense;
+import com.example.mzp.fairshare1.entity.Group;
+import com.example.mzp.fairshare1.entity.MonthlySpend;
+import com.example.mzp.fairshare1.entity.User;
+import com.example.mzp.fairshare1.repositories.MonthlySpendRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class BudgetServiceTest {
+
+    @Test
+    public void testThresholdIsAnnouncedOnceWhenCrossed() {
+        Group group = new Group("Home", "ABC123456");
+        group.setId(10L);
+        group.setMonthlyBudget(100.0);
+        User alice = new User("Alice", "alice@example.com", "secret");
+        alice.setId(1L);
+
+        // The rollup already holds 40.00; adding 45.00 brings it to 85% of the budget
+        MonthlySpend spend = new MonthlySpend(10L, "2026-03", 8500);
+        MonthlySpendRepository repository = mock(MonthlySpendRepository.class);
+        when(repository.addToTotal(10L, "2026-03", 4500)).thenReturn(1);
+        when(repository.findByGroupIdAndMonth(10L, "2026-03")).thenReturn(Optional.of(spend));
+        when(repository.raiseNotifiedPercent(10L, "2026-03", 80)).thenReturn(1, 0);
+        NotificationService notificationService = mock(NotificationService.class);
+
+        BudgetService service = new BudgetService();
+        ReflectionTestUtils.setField(service, "monthlySpendRepository", repository);
+        ReflectionTestUtils.setField(service, "notificationService", notificationService);
+        ReflectionTestUtils.setField(service, "alertThresholds", new int[] { 50, 80, 100 });
+
+        service.onExpenseCreated(expense(group, alice, LocalDate.of(2026, 3, 14), 45.0));
+        // A concurrent writer already raised the mark: no second alert
+        service.onExpenseCreated(expense(group, alice, LocalDate.of(2026, 3, 15), 45.0));
+
+        verify(notificationService, times(1)).sendBudgetAlert(10L, alice, "2026-03", 80, 85.0, 100.0);
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    public void testExpenseMovedToAnotherMonth() {
+        Group group = new Group("Home", "ABC123456");
+        group.setId(10L);
+        MonthlySpendRepository repository = mock(MonthlySpendRepository.class);
+        when(repository.addToTotal(anyLong(), anyString(), anyLong())).thenReturn(1);
+
+        BudgetService service = new BudgetService();
+        ReflectionTestUtils.setField(service, "monthlySpendRepository", repository);
+
+        service.onExpenseUpdated(LocalDate.of(2026, 3, 31), 20.0, expense(group, null, LocalDate.of(2026, 4, 1), 25.5));
+
+        verify(repository).addToTotal(10L, "2026-03", -2000);
+        verify(repository).addToTotal(10L, "2026-04", 2550);
+    }
+
+    @Test
+    public void testProjectedBurn() {
+        // 10 days into a 30-day month with 200 spent of 500
+        BudgetService.BudgetStatus status = BudgetService.BudgetStatus.of(YearMonth.of(2026, 4), 500.0, 200.0,
+                LocalDate.of(2026, 4, 10));
+        assertEquals(300.0, status.getRemaining());
+        assertEquals(40.0, status.getPercentUsed());
+        assertEquals(20.0, status.getDailyBurn());
+        assertEquals(600.0, status.getProjectedSpend());
+        assertEquals(-100.0, status.getProjectedRemaining());
+
+        // A finished month projects exactly what was spent
+        BudgetService.BudgetStatus past = BudgetService.BudgetStatus.of(YearMonth.of(2026, 3), 500.0, 310.0,
+                LocalDate.of(2026, 4, 10));
+        assertEquals(310.0, past.getProjectedSpend(), 1e-9);
+    }
+
+    @Test
+    public void testMonthOf() {
+        assertEquals("2026-03", BudgetService.monthOf(LocalDate.of(2026, 3, 14)));
+        assertEquals("2026-12", BudgetService.monthOf(LocalDate.of(2026, 12, 31)));
+        assertNull(BudgetService.monthOf(null));
+    }
+
+    private static Expense expense(Group group, User paidBy, LocalDate date, Double amount) {
+        Expense expense = new Expense();
+        expense.setTitle("Groceries");
+        expense.setGroup(group);
+        expense.setPaidBy(paidBy);
+        expense.setDate(date);
+        expense.setAmount(amount);
+        return expense;
+    }
+}
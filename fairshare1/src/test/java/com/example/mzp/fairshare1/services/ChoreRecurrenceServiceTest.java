@@ -0,0 +1,142 @@
+package com.example.mzp.fairshare1.services;
+
+import com.example.mzp.fairshare1.entity.Chore;
+import com.example.mzp.fairshare1.entity.ChoreRecurrence;
+import com.example.mzp.fairshare1.entity.Group;
+import com.example.mzp.fairshare1.entity.User;
+import com.example.mzp.fairshare1.repositories.ChoreRepository;
+import com.example.mzp.fairshare1.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:recurrence;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "fairshare.avatars.dir=target/test-avatars",
+        "fairshare.recurrence.horizon-days=13",
+        "fairshare.recurrence.initial-delay-ms=3600000"
+})
+public class ChoreRecurrenceServiceTest {
+
+    @Autowired
+    private ChoreRecurrenceService recurrenceService;
+
+    @Autowired
+    private ChoreRecurrenceScheduler scheduler;
+
+    @Autowired
+    private GroupService groupService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ChoreRepository choreRepository;
+
+    @Autowired
+    private FairnessService fairnessService;
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void testOccurrencesAreSpreadFairlyAndGeneratedOnce() {
+        User alice = userRepository.save(new User("Alice", "alice.recurring@example.com", "secret"));
+        User bob = userRepository.save(new User("Bob", "bob.recurring@example.com", "secret"));
+        Group group = groupService.createGroup("Flat", alice);
+        groupService.addMember(group.getId(), bob);
+
+        // Today through today + 13: 2 weekly occurrences for Bob, then 14 daily ones that
+        // start from Bob's two pending chores
+        recurrenceService.createRecurrence(group.getId(), recurrence("Bins", "weekly", bob.getId()));
+        recurrenceService.createRecurrence(group.getId(), recurrence("Dishes", "daily", null));
+
+        List<Chore> chores = choreRepository.findByGroupId(group.getId());
+        assertEquals(16, chores.size());
+        assertTrue(chores.stream().filter(chore -> chore.getTitle().equals("Bins"))
+                .allMatch(chore -> chore.getAssignedTo().getId().equals(bob.getId())));
+        Map<Long, Long> perMember = chores.stream()
+                .collect(Collectors.groupingBy(chore -> chore.getAssignedTo().getId(), Collectors.counting()));
+        assertEquals(8L, perMember.get(alice.getId()));
+        assertEquals(8L, perMember.get(bob.getId()));
+
+        // Nothing new until the horizon moves, then only the days after the last run
+        LocalDate horizon = recurrenceService.horizon();
+        assertEquals(0, scheduler.generateUpTo(horizon));
+        assertEquals(8, scheduler.generateUpTo(horizon.plusDays(7)));
+        assertEquals(24, choreRepository.findByGroupId(group.getId()).size());
+    }
+
+    @Test
+    public void testStoppingRemovesOpenOccurrencesOnly() {
+        User carol = userRepository.save(new User("Carol", "carol.recurring@example.com", "secret"));
+        Group group = groupService.createGroup("Studio", carol);
+
+        ChoreRecurrence plants = recurrenceService.createRecurrence(group.getId(), recurrence("Plants", "custom", null));
+        List<Chore> chores = choreRepository.findByGroupId(group.getId());
+        assertEquals(5, chores.size(), "every third day from today through today + 13");
+        Chore done = chores.get(0);
+        done.setStatus("completed");
+        choreRepository.save(done);
+
+        recurrenceService.stopRecurrence(plants.getId());
+        List<Chore> remaining = choreRepository.findByGroupId(group.getId());
+        assertEquals(1, remaining.size());
+        assertEquals(done.getId(), remaining.get(0).getId());
+        assertTrue(recurrenceService.getGroupRecurrences(group.getId()).isEmpty());
+        assertEquals(0, recurrenceService.generateForGroup(group.getId(), recurrenceService.horizon().plusDays(30)));
+    }
+
+    // Occurrences generated in a transaction that rolls back never reach the scores or search
+    @Test
+    public void testRolledBackGenerationLeavesNoPhantomChores() {
+        User dave = userRepository.save(new User("Dave", "dave.recurring@example.com", "secret"));
+        User erin = userRepository.save(new User("Erin", "erin.recurring@example.com", "secret"));
+        Group group = groupService.createGroup("Loft", dave);
+        groupService.addMember(group.getId(), erin);
+        assertTrue(searchService.search(group.getId(), null, "laundry", 0, 20).getItems().isEmpty());
+        Map<Long, Integer> before = pendingWeights(group);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            recurrenceService.createRecurrence(group.getId(), recurrence("Laundry", "daily", null));
+            status.setRollbackOnly();
+        });
+        assertTrue(choreRepository.findByGroupId(group.getId()).isEmpty());
+        assertTrue(searchService.search(group.getId(), null, "laundry", 0, 20).getItems().isEmpty());
+        assertEquals(before, pendingWeights(group));
+    }
+
+    private Map<Long, Integer> pendingWeights(Group group) {
+        return fairnessService.calculateFairnessScores(group.getId()).values().stream()
+                .collect(Collectors.toMap(FairnessService.FairnessScore::getUserId,
+                        FairnessService.FairnessScore::getPendingWeight));
+    }
+
+    private static ChoreRecurrence recurrence(String title, String frequency, Long assignedToId) {
+        ChoreRecurrence recurrence = new ChoreRecurrence();
+        recurrence.setTitle(title);
+        recurrence.setFrequency(frequency);
+        recurrence.setIntervalDays(3);
+        recurrence.setAssignedToId(assignedToId);
+        return recurrence;
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.mzp.fairshare1.services;
+
+import com.example.mzp.fairshare1.entity.Chore;
+import com.example.mzp.fairshare1.entity.Group;
+import com.example.mzp.fairshare1.entity.User;
+import com.example.mzp.fairshare1.repositories.ChoreRepository;
+import com.example.mzp.fairshare1.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Many threads creating fairly assigned chores in one group at the same time must
+ * still spread them evenly: no two concurrent requests may pick from the same scores.
+ */
+@SpringBootTest(properties = {
+        // Not MODE=MySQL: H2's MySQL mode can hand out duplicate identity values to
+        // concurrent inserts
+        "spring.datasource.url=jdbc:h2:mem:stress;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "fairshare.avatars.dir=target/test-avatars"
+})
+public class ChoreServiceConcurrencyTest {
+
+    private static final int MEMBERS = 8;
+    private static final int THREADS = 16;
+    private static final int CHORES_PER_THREAD = 25;
+
+    @Autowired
+    private ChoreService choreService;
+
+    @Autowired
+    private GroupService groupService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ChoreRepository choreRepository;
+
+    @Test
+    public void testConcurrentFairAssignmentsStayBalanced() throws Exception {
+        Group group = groupOf("Single", "stress");
+        runConcurrently(thread -> {
+            for (int i = 0; i < CHORES_PER_THREAD; i++) {
+                Chore chore = new Chore("Chore " + thread + "-" + i, null, null, "pending", null, null);
+                choreService.createChore(chore, group.getId(), null, true);
+            }
+        });
+        assertBalanced(group, (long) THREADS * CHORES_PER_THREAD);
+    }
+
+    @Test
+    public void testConcurrentBulkCreatesStayBalanced() throws Exception {
+        Group group = groupOf("Bulk", "bulk");
+        runConcurrently(thread -> {
+            List<Chore> chores = new ArrayList<>();
+            for (int i = 0; i < CHORES_PER_THREAD; i++) {
+                chores.add(new Chore("Chore " + thread + "-" + i, null, null, "pending", null, null));
+            }
+            List<Chore> created = choreService.createChores(group.getId(), chores,
+                    Collections.nCopies(chores.size(), null), true);
+            assertTrue(created.stream().allMatch(chore -> chore.getId() != null), "generated ids are returned");
+        });
+        assertBalanced(group, (long) THREADS * CHORES_PER_THREAD);
+    }
+
+    private Group groupOf(String name, String emailPrefix) {
+        List<User> members = new ArrayList<>();
+        for (int i = 0; i < MEMBERS; i++) {
+            members.add(userRepository.save(new User(name + " " + i, emailPrefix + i + "@example.com", "secret")));
+        }
+        Group group = groupService.createGroup(name, members.get(0));
+        members.subList(1, MEMBERS).forEach(member -> groupService.addMember(group.getId(), member));
+        return group;
+    }
+
+    private void runConcurrently(Work work) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            results.add(pool.submit(() -> {
+                start.await();
+                work.run(thread);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get();
+        }
+        pool.shutdown();
+    }
+
+    // Count what was persisted, not the in-memory scoreboard
+    private void assertBalanced(Group group, long total) {
+        Map<Long, Long> perMember = choreRepository.findByGroupId(group.getId()).stream()
+                .collect(Collectors.groupingBy(chore -> chore.getAssignedTo().getId(), Collectors.counting()));
+        assertEquals(MEMBERS, perMember.size(), "every member should be assigned chores");
+        perMember.forEach((userId, count) -> assertEquals(total / MEMBERS, count, "chores assigned to " + userId));
+    }
+
+    private interface Work {
+        void run(int thread) throws Exception;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.mzp.fairshare1.services;
+
+import com.example.mzp.fairshare1.entity.Expense;
+import com.example.mzp.fairshare1.entity.Group;
+import com.example.mzp.fairshare1.entity.User;
+import com.example.mzp.fairshare1.repositories.ExpenseRepository;
+import com.example.mzp.fairshare1.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:expenses;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "fairshare.avatars.dir=target/test-avatars"
+})
+public class ExpenseServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 14);
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private GroupService groupService;
+
+    @Autowired
+    private BudgetService budgetService;
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // The expense and its monthly spend delta commit or roll back together
+    @Test
+    public void testMonthlySpendFollowsTheExpenseTransaction() {
+        User alice = userRepository.save(new User("Alice", "alice.expenses@example.com", "secret"));
+        Group group = groupService.createGroup("Expense flat", alice);
+        Long groupId = group.getId();
+
+        Expense groceries = expenseService.createExpense(expense("Groceries", 40.0), groupId, alice.getId());
+        assertEquals(40.0, spent(groupId));
+        expenseService.updateExpense(groceries.getId(), expense(null, 55.5));
+        assertEquals(55.5, spent(groupId));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            expenseService.createExpense(expense("Takeaway", 20.0), groupId, alice.getId());
+            expenseService.deleteExpense(groceries.getId());
+            status.setRollbackOnly();
+        });
+        assertEquals(55.5, spent(groupId));
+        assertEquals(1, expenseRepository.findRowsByGroupId(groupId, null).size());
+        assertTrue(searchService.search(groupId, null, "takeaway", 0, 20).getItems().isEmpty());
+        assertEquals(1, searchService.search(groupId, null, "groceries", 0, 20).getTotal());
+
+        expenseService.deleteExpense(groceries.getId());
+        assertEquals(0.0, spent(groupId));
+    }
+
+    private double spent(Long groupId) {
+        return budgetService.getBudget(groupId, YearMonth.from(DAY)).getSpent();
+    }
+
+    private static Expense expense(String title, double amount) {
+        Expense expense = new Expense();
+        expense.setTitle(title);
+        expense.setAmount(amount);
+        expense.setDate(DAY);
+        expense.setIsSplit(true);
+        return expense;
+    }
+}
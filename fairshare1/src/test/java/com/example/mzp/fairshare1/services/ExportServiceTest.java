@@ -0,0 +1,30 @@
+package com.example.mzp.fairshare1.services;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExportServiceTest {
+
+    @Test
+    public void testCsvQuotesOnlyWhenNeeded() {
+        assertEquals("Groceries", ExportService.csv("Groceries"));
+        assertEquals("\"Milk, eggs\"", ExportService.csv("Milk, eggs"));
+        assertEquals("\"The \"\"big\"\" shop\"", ExportService.csv("The \"big\" shop"));
+        assertEquals("\"two\nlines\"", ExportService.csv("two\nlines"));
+    }
+
+    @Test
+    public void testFormulaLikeTextIsNotEvaluated() {
+        assertEquals("'=SUM(A1:A9)", ExportService.text("=SUM(A1:A9)"));
+        assertEquals("'@cmd", ExportService.text("@cmd"));
+        assertEquals("Rent", ExportService.text("Rent"));
+        assertNull(ExportService.text(null));
+    }
+
+    @Test
+    public void testUnknownFormatIsRejected() {
+        assertEquals(ExportService.Format.NDJSON, ExportService.Format.of("NDJSON"));
+        assertThrows(RuntimeException.class, () -> ExportService.Format.of("xlsx"));
+    }
+}
@@ -1,7 +1,32 @@
 package com.example.mzp.fairshare1.services;
 
+import com.example.mzp.fairshare1.entity.Chore;
+import com.example.mzp.fairshare1.entity.Group;
+import com.example.mzp.fairshare1.entity.User;
+import com.example.mzp.fairshare1.repositories.ChoreRepository;
+import com.example.mzp.fairshare1.repositories.GroupRepository;
 import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
 
 public class FairnessServiceTest {
 
@@ -28,4 +53,336 @@ public class FairnessServiceTest {
         score.calculateScore();
         assertEquals(70, score.getScore(), "Score should continue to decrease");
     }
+
+    @Test
+    public void testScoreboardIsBuiltOnceAndUpdatedInPlace() {
+        User alice = user(1L, "Alice");
+        User bob = user(2L, "Bob");
+        Group group = new Group("Home", "ABC123456");
+        group.setId(10L);
+        group.addMember(alice);
+        group.addMember(bob);
+
+        Chore alicesPending = chore(group, alice, "pending");
+
+        ChoreRepository choreRepository = mock(ChoreRepository.class);
+        GroupRepository groupRepository = mock(GroupRepository.class);
+        when(groupRepository.findWithMembersById(10L)).thenReturn(Optional.of(group));
+        when(choreRepository.countByAssignee(10L)).thenReturn(List.of(counts(1L, 1L, 1L)));
+
+        FairnessService service = service(choreRepository, groupRepository);
+
+        Map<Long, FairnessService.FairnessScore> scores = service.calculateFairnessScores(10L);
+        assertEquals(1, scores.get(1L).getPending());
+        assertEquals(1, scores.get(1L).getCompleted());
+        assertEquals(2L, service.selectFairestMember(10L));
+
+        // Assign a new chore to Bob, then complete Alice's pending one
+        Chore bobs = chore(group, bob, "pending");
+        service.onChoreCreated(bobs);
+        FairnessService.ChoreLoad before = FairnessService.ChoreLoad.of(alicesPending);
+        alicesPending.setStatus("completed");
+        service.onChoreUpdated(before, alicesPending);
+
+        scores = service.calculateFairnessScores(10L);
+        assertEquals(0, scores.get(1L).getPending());
+        assertEquals(2, scores.get(1L).getCompleted());
+        assertEquals(1, scores.get(2L).getPending());
+        assertEquals(1L, service.selectFairestMember(10L));
+
+        service.onChoreDeleted(bobs);
+        assertEquals(0, service.calculateFairnessScores(10L).get(2L).getPending());
+
+        // Counts are only queried when the scoreboard is first built
+        verify(choreRepository, times(1)).countByAssignee(10L);
+        verify(choreRepository, never()).findByGroupId(anyLong());
+    }
+
+    @Test
+    public void testReservationChargesBeforeTheChoreIsSaved() {
+        User alice = user(1L, "Alice");
+        User bob = user(2L, "Bob");
+        Group group = new Group("Home", "ABC123456");
+        group.setId(10L);
+        group.addMember(alice);
+        group.addMember(bob);
+
+        ChoreRepository choreRepository = mock(ChoreRepository.class);
+        GroupRepository groupRepository = mock(GroupRepository.class);
+        when(groupRepository.findWithMembersById(10L)).thenReturn(Optional.of(group));
+        when(choreRepository.countByAssignee(10L)).thenReturn(List.of());
+
+        FairnessService service = service(choreRepository, groupRepository);
+
+        // Equal scores: the tie goes to the lower id, and the second pick sees the first
+        FairnessService.Reservation first = service.reserveFairestMember(10L, chore(group, null, "pending"));
+        FairnessService.Reservation second = service.reserveFairestMember(10L, chore(group, null, "pending"));
+        assertEquals(1L, first.getUserId());
+        assertEquals(2L, second.getUserId());
+        assertEquals(1, service.calculateFairnessScores(10L).get(1L).getPending());
+
+        // A chore that failed to save gives its charge back
+        service.release(first);
+        assertEquals(0, service.calculateFairnessScores(10L).get(1L).getPending());
+        assertEquals(1L, service.reserveFairestMember(10L, chore(group, null, "pending")).getUserId());
+    }
+
+    @Test
+    public void testReservedChoreReachesAScoreboardRebuiltBeforeItCommitted() {
+        User alice = user(1L, "Alice");
+        Group group = new Group("Home", "ABC123456");
+        group.setId(10L);
+        group.addMember(alice);
+
+        ChoreRepository choreRepository = mock(ChoreRepository.class);
+        GroupRepository groupRepository = mock(GroupRepository.class);
+        when(groupRepository.findWithMembersById(10L)).thenReturn(Optional.of(group));
+        when(choreRepository.countByAssignee(10L)).thenReturn(List.of());
+
+        FairnessService service = service(choreRepository, groupRepository);
+
+        // Reported on the scoreboard it was charged to, the chore is not counted twice
+        Chore first = chore(group, null, "pending");
+        FairnessService.Reservation firstPick = service.reserveFairestMember(10L, first);
+        first.setAssignedTo(alice);
+        service.onChoreCreated(first, firstPick);
+        assertEquals(1, service.calculateFairnessScores(10L).get(1L).getPending());
+
+        // Evicted and rebuilt before the chore committed: the rebuild did not see it
+        Chore second = chore(group, null, "pending");
+        FairnessService.Reservation secondPick = service.reserveFairestMember(10L, second);
+        second.setAssignedTo(alice);
+        service.evictGroup(10L);
+        assertEquals(0, service.calculateFairnessScores(10L).get(1L).getPending());
+        service.onChoreCreated(second, secondPick);
+        assertEquals(1, service.calculateFairnessScores(10L).get(1L).getPending());
+    }
+
+    @Test
+    public void testBatchReservationSpreadsOverProjectedScores() {
+        Group group = new Group("Home", "ABC123456");
+        group.setId(10L);
+        for (long id = 1; id <= 3; id++) {
+            group.addMember(user(id, "Member" + id));
+        }
+
+        ChoreRepository choreRepository = mock(ChoreRepository.class);
+        GroupRepository groupRepository = mock(GroupRepository.class);
+        when(groupRepository.findWithMembersById(10L)).thenReturn(Optional.of(group));
+        // Member 1 already has two chores pending
+        when(choreRepository.countByAssignee(10L)).thenReturn(List.of(counts(1L, 2L, 0L)));
+
+        FairnessService service = service(choreRepository, groupRepository);
+
+        List<FairnessService.Reservation> reservations = service.reserveFairestMembers(10L,
+                Collections.nCopies(7, chore(group, null, "pending")));
+        Map<Long, Long> perMember = reservations.stream()
+                .collect(Collectors.groupingBy(FairnessService.Reservation::getUserId, Collectors.counting()));
+        // 9 pending in total afterwards, 3 each
+        assertEquals(1L, perMember.get(1L));
+        assertEquals(3L, perMember.get(2L));
+        assertEquals(3L, perMember.get(3L));
+
+        service.release(reservations);
+        assertEquals(0, service.calculateFairnessScores(10L).get(2L).getPending());
+    }
+
+    @Test
+    public void testWeightedEffortDecaysWithTheGroupsHalfLife() {
+        User alice = user(1L, "Alice");
+        User bob = user(2L, "Bob");
+        Group group = new Group("Home", "ABC123456");
+        group.setId(10L);
+        group.setFairnessHalfLifeDays(7);
+        group.addMember(alice);
+        group.addMember(bob);
+        LocalDate today = LocalDate.of(2024, 3, 15);
+
+        ChoreRepository choreRepository = mock(ChoreRepository.class);
+        GroupRepository groupRepository = mock(GroupRepository.class);
+        when(groupRepository.findWithMembersById(10L)).thenReturn(Optional.of(group));
+        // Alice has a weight 3 chore pending; Bob finished weight 8 two half-lives ago
+        when(choreRepository.countByAssignee(10L)).thenReturn(List.of(counts(1L, 1L, 0L, 3L, 0L),
+                counts(2L, 0L, 1L, 0L, 8L)));
+        when(choreRepository.sumCompletedWeightByDay(eq(10L), any()))
+                .thenReturn(List.of(dailyEffort(2L, today.minusDays(14), 8L)));
+
+        FairnessService service = service(choreRepository, groupRepository);
+        ReflectionTestUtils.setField(service, "clock", Clock.fixed(today.atTime(LocalTime.NOON)
+                .atZone(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault()));
+
+        Map<Long, FairnessService.FairnessScore> scores = service.calculateFairnessScores(10L);
+        assertEquals(40, scores.get(1L).getScore(), "100 - 3 * 20");
+        assertEquals(2.0, scores.get(2L).getEffort(), 1e-9);
+        assertEquals(1, scores.get(2L).getCompleted());
+
+        // Alice completes her chore; it was finished a week ago, so half of it is left
+        Chore alicesChore = chore(group, alice, "pending");
+        alicesChore.setWeight(3);
+        FairnessService.ChoreLoad before = FairnessService.ChoreLoad.of(alicesChore);
+        alicesChore.setStatus("completed");
+        alicesChore.setCompletedAt(today.minusDays(7).atTime(LocalTime.NOON));
+        service.onChoreUpdated(before, alicesChore);
+
+        scores = service.calculateFairnessScores(10L);
+        assertEquals(0, scores.get(1L).getPendingWeight());
+        assertEquals(1.5, scores.get(1L).getEffort(), 1e-9);
+
+        // A weight 2 chore charges twice the pending effort of an ordinary one
+        Chore heavy = chore(group, null, "pending");
+        heavy.setWeight(2);
+        assertEquals(1L, service.reserveFairestMember(10L, heavy).getUserId());
+        assertEquals(2, service.calculateFairnessScores(10L).get(1L).getPendingWeight());
+        assertEquals(75, service.calculateFairnessScores(10L).get(1L).getScore(), "100 + 15 - 40");
+    }
+
+    @Test
+    public void testChoreSavedWhileTheScoreboardIsBuiltIsCounted() throws Exception {
+        User alice = user(1L, "Alice");
+        Group group = new Group("Home", "ABC123456");
+        group.setId(10L);
+        group.addMember(alice);
+
+        // Alice's chore commits after the first build read the counts but before that
+        // build is installed; a build started later sees it
+        AtomicBoolean committed = new AtomicBoolean();
+        CountDownLatch queried = new CountDownLatch(1);
+        CountDownLatch saved = new CountDownLatch(1);
+        ChoreRepository choreRepository = mock(ChoreRepository.class);
+        GroupRepository groupRepository = mock(GroupRepository.class);
+        when(groupRepository.findWithMembersById(10L)).thenReturn(Optional.of(group));
+        when(choreRepository.countByAssignee(10L)).thenAnswer(invocation -> {
+            List<ChoreRepository.AssigneeChoreCounts> rows = committed.get() ? List.of(counts(1L, 1L, 0L))
+                    : List.of();
+            queried.countDown();
+            saved.await(5, TimeUnit.SECONDS);
+            return rows;
+        });
+
+        FairnessService service = service(choreRepository, groupRepository);
+
+        Thread build = new Thread(() -> service.calculateFairnessScores(10L));
+        build.start();
+        assertTrue(queried.await(5, TimeUnit.SECONDS));
+        committed.set(true);
+        service.onChoreCreated(chore(group, alice, "pending"));
+        saved.countDown();
+        build.join(5000);
+
+        assertEquals(1, service.calculateFairnessScores(10L).get(1L).getPending());
+        verify(choreRepository, times(2)).countByAssignee(10L);
+    }
+
+    // A slow build holds no lock that other groups need
+    @Test
+    public void testBuildingOneScoreboardDoesNotBlockAnotherGroup() throws Exception {
+        User alice = user(1L, "Alice");
+        User bob = user(2L, "Bob");
+        Group slow = new Group("Slow", "ABC123456");
+        slow.setId(10L);
+        slow.addMember(alice);
+        Group other = new Group("Other", "DEF123456");
+        other.setId(11L);
+        other.addMember(bob);
+
+        CountDownLatch queried = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ChoreRepository choreRepository = mock(ChoreRepository.class);
+        GroupRepository groupRepository = mock(GroupRepository.class);
+        when(groupRepository.findWithMembersById(10L)).thenReturn(Optional.of(slow));
+        when(groupRepository.findWithMembersById(11L)).thenReturn(Optional.of(other));
+        when(choreRepository.countByAssignee(10L)).thenAnswer(invocation -> {
+            queried.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+        when(choreRepository.countByAssignee(11L)).thenReturn(List.of(counts(2L, 1L, 0L)));
+
+        FairnessService service = service(choreRepository, groupRepository);
+
+        Thread build = new Thread(() -> service.calculateFairnessScores(10L));
+        build.start();
+        assertTrue(queried.await(5, TimeUnit.SECONDS));
+        try {
+            assertEquals(1, service.calculateFairnessScores(11L).get(2L).getPending());
+            service.onChoreDeleted(chore(other, bob, "pending"));
+            assertEquals(0, service.calculateFairnessScores(11L).get(2L).getPending());
+            assertTrue(build.isAlive());
+        } finally {
+            release.countDown();
+            build.join(5000);
+        }
+    }
+
+    private static FairnessService service(ChoreRepository choreRepository, GroupRepository groupRepository) {
+        FairnessService service = new FairnessService();
+        ReflectionTestUtils.setField(service, "choreRepository", choreRepository);
+        ReflectionTestUtils.setField(service, "groupRepository", groupRepository);
+        ReflectionTestUtils.setField(service, "transactionManager", mock(PlatformTransactionManager.class));
+        service.init();
+        return service;
+    }
+
+    private static User user(Long id, String name) {
+        User user = new User(name, name.toLowerCase() + "@example.com", "secret");
+        user.setId(id);
+        return user;
+    }
+
+    private static ChoreRepository.AssigneeChoreCounts counts(Long userId, Long pending, Long completed) {
+        return counts(userId, pending, completed, pending, completed);
+    }
+
+    private static ChoreRepository.AssigneeChoreCounts counts(Long userId, Long pending, Long completed,
+            Long pendingWeight, Long completedWeight) {
+        return new ChoreRepository.AssigneeChoreCounts() {
+            public Long getAssignedToId() {
+                return userId;
+            }
+
+            public Long getCompletedCount() {
+                return completed;
+            }
+
+            public Long getPendingCount() {
+                return pending;
+            }
+
+            public Long getCompletedWeight() {
+                return completedWeight;
+            }
+
+            public Long getPendingWeight() {
+                return pendingWeight;
+            }
+        };
+    }
+
+    private static ChoreRepository.DailyEffort dailyEffort(Long userId, LocalDate day, Long weight) {
+        return new ChoreRepository.DailyEffort() {
+            public Long getAssignedToId() {
+                return userId;
+            }
+
+            public Integer getYear() {
+                return day.getYear();
+            }
+
+            public Integer getMonth() {
+                return day.getMonthValue();
+            }
+
+            public Integer getDay() {
+                return day.getDayOfMonth();
+            }
+
+            public Long getWeight() {
+                return weight;
+            }
+        };
+    }
+
+    private static Chore chore(Group group, User assignee, String status) {
+        return new Chore("Chore", null, null, status, assignee, group);
+    }
 }
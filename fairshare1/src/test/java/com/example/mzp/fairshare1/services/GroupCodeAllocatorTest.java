@@ -0,0 +1,99 @@
+package com.example.mzp.fairshare1.services;
+
+import com.example.mzp.fairshare1.repositories.GroupRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class GroupCodeAllocatorTest {
+
+    @Test
+    public void testBloomFilterHasNoFalseNegatives() {
+        GroupCodeAllocator.BloomFilter filter = new GroupCodeAllocator.BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.add("ABC" + String.format("%06d", i));
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(filter.mightContain("ABC" + String.format("%06d", i)));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContain("XYZ" + String.format("%06d", i))) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 300, "False positive rate should stay near the configured 1%");
+    }
+
+    @Test
+    public void testAllocatedCodesAreWellFormedAndSkipCodesInUse() throws Exception {
+        GroupRepository groupRepository = mock(GroupRepository.class);
+        when(groupRepository.findAllCodes()).thenReturn(List.of("AAA000001", "AAA000002"));
+
+        // The first two candidates drawn are exactly the codes already in use
+        ScriptedRandom random = new ScriptedRandom(
+                0, 0, 0, 0, 0, 0, 0, 0, 1,
+                0, 0, 0, 0, 0, 0, 0, 0, 2);
+
+        GroupCodeAllocator allocator = new GroupCodeAllocator();
+        ReflectionTestUtils.setField(allocator, "groupRepository", groupRepository);
+        ReflectionTestUtils.setField(allocator, "poolSize", 16);
+        ReflectionTestUtils.setField(allocator, "random", random);
+        allocator.start();
+        try {
+            // The filter is loaded in the background before the pool is filled
+            long deadline = System.currentTimeMillis() + 5000;
+            while (ReflectionTestUtils.getField(allocator, "usedCodes") == null
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            assertNotNull(ReflectionTestUtils.getField(allocator, "usedCodes"), "Used codes were not loaded");
+
+            Set<String> codes = new HashSet<>();
+            for (int i = 0; i < 1000; i++) {
+                String code = allocator.allocate();
+                assertTrue(code.matches("[A-Z]{3}[0-9]{6}"), code);
+                assertTrue(codes.add(code), "Codes should not repeat");
+            }
+            assertTrue(random.isUsedUp(), "The codes in use should have been drawn as candidates");
+            assertFalse(codes.contains("AAA000001"));
+            assertFalse(codes.contains("AAA000002"));
+            verify(groupRepository, never()).findByCode(anyString());
+        } finally {
+            allocator.stop();
+        }
+    }
+
+    // Returns the scripted values first, then seeded random ones
+    private static class ScriptedRandom extends Random {
+        private final Deque<Integer> script = new ArrayDeque<>();
+
+        ScriptedRandom(int... values) {
+            super(42);
+            for (int value : values) {
+                script.add(value);
+            }
+        }
+
+        @Override
+        public synchronized int nextInt(int bound) {
+            Integer next = script.poll();
+            return next != null ? next : super.nextInt(bound);
+        }
+
+        synchronized boolean isUsedUp() {
+            return script.isEmpty();
+        }
+    }
+}
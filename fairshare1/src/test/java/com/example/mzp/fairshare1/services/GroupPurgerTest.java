@@ -0,0 +1,149 @@
+package com.example.mzp.fairshare1.services;
+
+import com.example.mzp.fairshare1.entity.Chore;
+import com.example.mzp.fairshare1.entity.Expense;
+import com.example.mzp.fairshare1.entity.Group;
+import com.example.mzp.fairshare1.entity.Notification;
+import com.example.mzp.fairshare1.entity.User;
+import com.example.mzp.fairshare1.repositories.GroupRepository;
+import com.example.mzp.fairshare1.repositories.NotificationRepository;
+import com.example.mzp.fairshare1.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:purge;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "fairshare.avatars.dir=target/test-avatars",
+        "fairshare.groups.purge-chunk-size=2",
+        "fairshare.groups.purge-groups-per-sweep=1",
+        "fairshare.groups.purge-interval-ms=3600000"
+})
+public class GroupPurgerTest {
+
+    @Autowired
+    private GroupService groupService;
+
+    @Autowired
+    private GroupPurger groupPurger;
+
+    @Autowired
+    private ChoreService choreService;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testDeletedGroupIsHiddenThenPurgedInChunks() {
+        User owner = userRepository.save(new User("Owner", "owner.purge@example.com", "secret"));
+        User member = userRepository.save(new User("Member", "member.purge@example.com", "secret"));
+        Group group = groupService.createGroup("Doomed", owner);
+        groupService.addMember(group.getId(), member);
+        Group kept = groupService.createGroup("Kept", owner);
+        for (int i = 0; i < 5; i++) {
+            choreService.createChore(new Chore("Chore " + i, null, null, "pending", null, null), group.getId(),
+                    member.getId(), false);
+        }
+        choreService.createChore(new Chore("Other", null, null, "pending", null, null), kept.getId(),
+                owner.getId(), false);
+        for (int i = 0; i < 3; i++) {
+            Expense expense = new Expense();
+            expense.setTitle("Expense " + i);
+            expense.setAmount(10.0);
+            expenseService.createExpense(expense, group.getId(), owner.getId());
+        }
+        Notification notification = new Notification();
+        notification.setRecipient(member);
+        notification.setSender(owner);
+        notification.setGroup(group);
+        notification.setType(Notification.NotificationType.CHORE_ASSIGNED);
+        notification.setMessage("Owner assigned you a chore");
+        notificationRepository.save(notification);
+
+        groupService.deleteGroup(group.getId());
+
+        // Hidden at once, whether or not the purge started after the commit has run yet
+        assertTrue(groupRepository.findById(group.getId()).isEmpty());
+        assertTrue(groupRepository.findByCode(group.getCode()).isEmpty());
+        assertEquals(1, groupService.getUserGroups(owner).size());
+        assertTrue(groupService.getUserGroups(member).isEmpty());
+
+        // Waits for that purge if it is running
+        groupPurger.purgeDeletedGroups();
+
+        assertEquals(0, count("chores", group.getId()));
+        assertEquals(0, count("expenses", group.getId()));
+        assertEquals(0, count("notifications", group.getId()));
+        assertEquals(0, count("group_members", group.getId()));
+        assertEquals(0, groupRepository.countByCodeIncludingDeleted(group.getCode()));
+        assertEquals(1, count("chores", kept.getId()));
+
+        GroupPurger.PurgeProgress progress = groupPurger.getProgress(group.getId());
+        assertTrue(progress.isDone());
+        Map<String, Long> deleted = progress.getDeleted();
+        assertEquals(5L, deleted.get("chores"));
+        assertEquals(3L, deleted.get("expenses"));
+        assertEquals(1L, deleted.get("notifications"));
+        assertEquals(2L, deleted.get("group_members"));
+    }
+
+    @Test
+    public void testGroupThatCannotBePurgedDoesNotBlockLaterGroups() {
+        User owner = userRepository.save(new User("Owner", "owner.blocked@example.com", "secret"));
+        Group blocked = groupService.createGroup("Blocked", owner);
+        Group later = groupService.createGroup("Later", owner);
+        // A reference the purge does not know about makes deleting the group row fail every time
+        jdbcTemplate.execute("CREATE TABLE purge_blocker (group_id BIGINT REFERENCES groups_table (id))");
+        jdbcTemplate.update("INSERT INTO purge_blocker (group_id) VALUES (?)", blocked.getId());
+        try {
+            groupService.deleteGroup(blocked.getId());
+            groupService.deleteGroup(later.getId());
+
+            // One group per query: the sweep has to page past the blocked group to reach the later one
+            groupPurger.purgeDeletedGroups();
+            assertEquals(0, groupRepository.countByCodeIncludingDeleted(later.getCode()));
+            assertEquals(1, groupRepository.countByCodeIncludingDeleted(blocked.getCode()));
+            GroupPurger.PurgeProgress progress = groupPurger.getProgress(blocked.getId());
+            assertFalse(progress.isDone());
+            assertEquals(1, progress.getAttempts());
+            assertNotNull(progress.getLastError());
+
+            // Backing off: the next sweep does not try it again yet
+            groupPurger.purgeDeletedGroups();
+            assertEquals(1, groupPurger.getProgress(blocked.getId()).getAttempts());
+            assertTrue(progress.getRetryAt().isAfter(LocalDateTime.now()));
+        } finally {
+            jdbcTemplate.execute("DROP TABLE purge_blocker");
+        }
+    }
+
+    private int count(String table, Long groupId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE group_id = ?", Integer.class,
+                groupId);
+    }
+}
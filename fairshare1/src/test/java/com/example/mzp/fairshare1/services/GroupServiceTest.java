@@ -0,0 +1,72 @@
+package com.example.mzp.fairshare1.services;
+
+import com.example.mzp.fairshare1.entity.Expense;
+import com.example.mzp.fairshare1.entity.Group;
+import com.example.mzp.fairshare1.entity.User;
+import com.example.mzp.fairshare1.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:groups;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "fairshare.avatars.dir=target/test-avatars"
+})
+public class GroupServiceTest {
+
+    @Autowired
+    private GroupService groupService;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private SettlementService settlementService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // A settlement computed by another request while a member is being added still
+    // sees the old members; it must not outlive the commit
+    @Test
+    public void testSettlementCachedBeforeMembershipCommitsIsDropped() {
+        User alice = userRepository.save(new User("Alice", "alice.members@example.com", "secret"));
+        User bob = userRepository.save(new User("Bob", "bob.members@example.com", "secret"));
+        User carol = userRepository.save(new User("Carol", "carol.members@example.com", "secret"));
+        Group group = groupService.createGroup("Members flat", alice);
+        groupService.addMember(group.getId(), bob);
+        Expense rent = new Expense();
+        rent.setTitle("Rent");
+        rent.setAmount(30.0);
+        rent.setIsSplit(true);
+        expenseService.createExpense(rent, group.getId(), alice.getId());
+        assertEquals(2, settlementService.getSettlement(group.getId()).getBalances().size());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            groupService.addMember(group.getId(), carol);
+            SettlementService.Settlement before = CompletableFuture
+                    .supplyAsync(() -> settlementService.getSettlement(group.getId())).join();
+            assertEquals(2, before.getBalances().size());
+        });
+
+        SettlementService.Settlement after = settlementService.getSettlement(group.getId());
+        assertEquals(3, after.getBalances().size());
+        assertTrue(after.getBalances().stream().allMatch(balance -> balance.getShare() == 10.0));
+    }
+}
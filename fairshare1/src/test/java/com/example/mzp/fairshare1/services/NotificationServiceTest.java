@@ -0,0 +1,69 @@
+package com.example.mzp.fairshare1.services;
+
+import com.example.mzp.fairshare1.entity.Group;
+import com.example.mzp.fairshare1.entity.User;
+import com.example.mzp.fairshare1.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:notifications;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "fairshare.avatars.dir=target/test-avatars"
+})
+public class NotificationServiceTest {
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private GroupService groupService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // The cached unread count only changes once marking everything read commits
+    @Test
+    public void testUnreadCountFollowsTheCommittedState() {
+        User alice = userRepository.save(new User("Alice", "alice.unread@example.com", "secret"));
+        User bob = userRepository.save(new User("Bob", "bob.unread@example.com", "secret"));
+        Group group = groupService.createGroup("Unread flat", alice);
+        invite(group, bob, alice);
+        assertEquals(1, notificationService.getUnreadCount(bob.getId()));
+
+        transaction().executeWithoutResult(status -> {
+            notificationService.markAllRead(bob);
+            status.setRollbackOnly();
+        });
+        assertEquals(1, notificationService.getUnreadCount(bob.getId()));
+
+        notificationService.markAllRead(bob);
+        assertEquals(0, notificationService.getUnreadCount(bob.getId()));
+        invite(group, bob, alice);
+        assertEquals(1, notificationService.getUnreadCount(bob.getId()));
+    }
+
+    // Outside a request the group's members are only loaded inside a transaction
+    private void invite(Group group, User recipient, User sender) {
+        transaction().executeWithoutResult(status -> notificationService.sendInvite(group.getId(),
+                recipient.getEmail(), sender));
+    }
+
+    private TransactionTemplate transaction() {
+        return new TransactionTemplate(transactionManager);
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.mzp.fairshare1.services;
+
+import com.example.mzp.fairshare1.entity.Notification;
+import com.example.mzp.fairshare1.entity.User;
+import com.example.mzp.fairshare1.repositories.NotificationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class NotificationStreamServiceTest {
+
+    private static final Pattern EVENT = Pattern.compile("^(id|event):(.*)$", Pattern.MULTILINE);
+
+    // A notification persisted while the missed ones are being read is sent once, after them
+    @Test
+    public void testReplayComesFirstAndNothingIsSentTwice() {
+        NotificationRepository repository = mock(NotificationRepository.class);
+        NotificationStreamService service = service(repository);
+        when(repository.findInboxItemsByIds(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(NotificationStreamServiceTest::item).collect(Collectors.toList());
+        });
+        when(repository.findInboxItemsAfterId(eq(1L), eq(5L), any(Pageable.class))).thenAnswer(invocation -> {
+            service.publish(List.of(notification(7L), notification(8L)));
+            return List.of(item(6L), item(7L));
+        });
+
+        SseEmitter emitter = service.subscribe(1L, 5L);
+        service.publish(List.of(notification(9L)));
+
+        assertEquals(List.of("6", "7", "8", "9"), ids(emitter));
+        assertEquals(1, service.getOpenStreamCount());
+    }
+
+    @Test
+    public void testReplayCutShortAsksTheClientToResync() {
+        NotificationRepository repository = mock(NotificationRepository.class);
+        NotificationStreamService service = service(repository);
+        List<NotificationRepository.InboxItem> missed = new ArrayList<>();
+        for (long id = 1; id <= NotificationService.MAX_INBOX_PAGE_SIZE; id++) {
+            missed.add(item(id));
+        }
+        when(repository.findInboxItemsAfterId(eq(1L), eq(0L), any(Pageable.class))).thenReturn(missed);
+
+        SseEmitter emitter = service.subscribe(1L, 0L);
+
+        List<String> events = events(emitter);
+        assertEquals(NotificationService.MAX_INBOX_PAGE_SIZE, ids(emitter).size());
+        assertEquals("event:resync", events.get(events.size() - 1));
+    }
+
+    private static NotificationStreamService service(NotificationRepository repository) {
+        NotificationStreamService service = new NotificationStreamService();
+        ReflectionTestUtils.setField(service, "notificationRepository", repository);
+        ReflectionTestUtils.setField(service, "streamTimeoutMs", 60000L);
+        return service;
+    }
+
+    // Events sent before the emitter is handed to the response are kept in order until then
+    @SuppressWarnings("unchecked")
+    private static List<String> events(SseEmitter emitter) {
+        Set<ResponseBodyEmitter.DataWithMediaType> sent = (Set<ResponseBodyEmitter.DataWithMediaType>)
+                ReflectionTestUtils.getField(emitter, "earlySendAttempts");
+        List<String> events = new ArrayList<>();
+        for (ResponseBodyEmitter.DataWithMediaType data : sent) {
+            if (data.getData() instanceof String text) {
+                Matcher matcher = EVENT.matcher(text);
+                while (matcher.find()) {
+                    events.add(matcher.group());
+                }
+            }
+        }
+        return events;
+    }
+
+    private static List<String> ids(SseEmitter emitter) {
+        return events(emitter).stream()
+                .filter(event -> event.startsWith("id:"))
+                .map(event -> event.substring(3))
+                .collect(Collectors.toList());
+    }
+
+    private static NotificationRepository.InboxItem item(Long id) {
+        NotificationRepository.InboxItem item = mock(NotificationRepository.InboxItem.class);
+        when(item.getId()).thenReturn(id);
+        when(item.getRecipientId()).thenReturn(1L);
+        return item;
+    }
+
+    private static Notification notification(Long id) {
+        User recipient = new User("Member", "member@example.com", "secret");
+        recipient.setId(1L);
+        Notification notification = new Notification();
+        notification.setId(id);
+        notification.setRecipient(recipient);
+        return notification;
+    }
+}
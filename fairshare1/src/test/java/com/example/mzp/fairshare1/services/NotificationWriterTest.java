@@ -0,0 +1,167 @@
+package com.example.mzp.fairshare1.services;
+
+import com.example.mzp.fairshare1.entity.Notification;
+import com.example.mzp.fairshare1.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class NotificationWriterTest {
+
+    @Test
+    public void testQueuedNotificationsAreWrittenInBatchesAndFlushedOnShutdown() throws Exception {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        AtomicInteger rowsWritten = new AtomicInteger();
+        when(jdbcTemplate.batchUpdate(any(PreparedStatementCreator.class), any(BatchPreparedStatementSetter.class),
+                any(KeyHolder.class))).thenAnswer(invocation -> {
+                    BatchPreparedStatementSetter setter = invocation.getArgument(1);
+                    rowsWritten.addAndGet(setter.getBatchSize());
+                    return new int[setter.getBatchSize()];
+                });
+
+        NotificationWriter writer = new NotificationWriter();
+        ReflectionTestUtils.setField(writer, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(writer, "transactionManager", mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(writer, "queueCapacity", 100);
+        ReflectionTestUtils.setField(writer, "batchSize", 25);
+        ReflectionTestUtils.setField(writer, "flushIntervalMs", 10L);
+
+        AtomicInteger notified = new AtomicInteger();
+        writer.onPersisted((List<Notification> batch) -> notified.addAndGet(batch.size()));
+        writer.start();
+
+        for (int i = 0; i < 1000; i++) {
+            writer.enqueue(notification());
+        }
+        writer.shutdown();
+
+        assertEquals(1000, rowsWritten.get(), "Every queued notification should be written");
+        assertEquals(1000, notified.get());
+        assertEquals(1000L, writer.getStats().get("written"));
+        assertTrue((Integer) writer.getStats().get("largestBatch") <= 25, "Batches should respect the batch size");
+        assertTrue((Long) writer.getStats().get("batches") >= 40);
+    }
+
+    @Test
+    public void testNotificationsEnqueuedDuringShutdownAreNotLost() throws Exception {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        AtomicInteger rowsWritten = new AtomicInteger();
+        when(jdbcTemplate.batchUpdate(any(PreparedStatementCreator.class), any(BatchPreparedStatementSetter.class),
+                any(KeyHolder.class))).thenAnswer(invocation -> {
+                    BatchPreparedStatementSetter setter = invocation.getArgument(1);
+                    rowsWritten.addAndGet(setter.getBatchSize());
+                    return new int[setter.getBatchSize()];
+                });
+
+        NotificationWriter writer = new NotificationWriter();
+        ReflectionTestUtils.setField(writer, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(writer, "transactionManager", mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(writer, "queueCapacity", 50);
+        ReflectionTestUtils.setField(writer, "batchSize", 10);
+        ReflectionTestUtils.setField(writer, "flushIntervalMs", 1L);
+        writer.start();
+
+        // Producers keep going while the writer shuts down under them
+        int producers = 4;
+        int perProducer = 2000;
+        CountDownLatch started = new CountDownLatch(producers);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            Thread thread = new Thread(() -> {
+                started.countDown();
+                for (int i = 0; i < perProducer; i++) {
+                    writer.enqueue(notification());
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        started.await();
+        writer.shutdown();
+        for (Thread thread : threads) {
+            thread.join(10000);
+        }
+
+        assertEquals(producers * perProducer, rowsWritten.get(), "No notification should be left in the queue");
+    }
+
+    @Test
+    public void testFailingBatchIsRetriedThenWrittenRowByRow() throws Exception {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        AtomicInteger batchAttempts = new AtomicInteger();
+        when(jdbcTemplate.batchUpdate(any(PreparedStatementCreator.class), any(BatchPreparedStatementSetter.class),
+                any(KeyHolder.class))).thenAnswer(invocation -> {
+                    BatchPreparedStatementSetter setter = invocation.getArgument(1);
+                    // The row with the "bad" message violates a constraint and fails the whole statement
+                    AtomicBoolean rejected = new AtomicBoolean();
+                    PreparedStatement ps = mock(PreparedStatement.class);
+                    doAnswer(bind -> {
+                        rejected.set(true);
+                        return null;
+                    }).when(ps).setString(8, "bad");
+                    for (int i = 0; i < setter.getBatchSize(); i++) {
+                        setter.setValues(ps, i);
+                    }
+                    if (setter.getBatchSize() > 1) {
+                        batchAttempts.incrementAndGet();
+                    }
+                    if (rejected.get()) {
+                        throw new DataIntegrityViolationException("bad row");
+                    }
+                    return new int[setter.getBatchSize()];
+                });
+
+        NotificationWriter writer = new NotificationWriter();
+        ReflectionTestUtils.setField(writer, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(writer, "transactionManager", mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(writer, "queueCapacity", 100);
+        ReflectionTestUtils.setField(writer, "batchSize", 10);
+        ReflectionTestUtils.setField(writer, "flushIntervalMs", 10L);
+
+        List<Notification> persisted = new CopyOnWriteArrayList<>();
+        writer.onPersisted(persisted::addAll);
+        writer.start();
+        writer.shutdown();
+
+        // Handed to the writer as a single batch
+        List<Notification> batch = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            batch.add(notification());
+        }
+        batch.get(2).setMessage("bad");
+        ReflectionTestUtils.invokeMethod(writer, "writeBatch", batch);
+
+        assertEquals(2, batchAttempts.get(), "The batch should be retried once before splitting it");
+        assertEquals(4, persisted.size(), "Only the rejected row should be dropped");
+        assertFalse(persisted.contains(batch.get(2)));
+        assertEquals(4L, writer.getStats().get("written"));
+        assertEquals(1L, writer.getStats().get("failed"));
+    }
+
+    private static Notification notification() {
+        User user = new User("Member", "member@example.com", "secret");
+        user.setId(1L);
+        Notification notification = new Notification();
+        notification.setRecipient(user);
+        notification.setSender(user);
+        notification.setType(Notification.NotificationType.EXPENSE_ADDED);
+        return notification;
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.mzp.fairshare1.services;
+
+import com.example.mzp.fairshare1.entity.Chore;
+import com.example.mzp.fairshare1.entity.Expense;
+import com.example.mzp.fairshare1.entity.Group;
+import com.example.mzp.fairshare1.entity.User;
+import com.example.mzp.fairshare1.repositories.ChoreRepository;
+import com.example.mzp.fairshare1.repositories.ExpenseRepository;
+import com.example.mzp.fairshare1.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:search;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "fairshare.avatars.dir=target/test-avatars"
+})
+public class SearchServiceTest {
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private GroupService groupService;
+
+    @Autowired
+    private ChoreService choreService;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FairnessService fairnessService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void testSearchMatchesPrefixesRanksTitlesAndFollowsChanges() {
+        User alice = userRepository.save(new User("Alice", "alice.search@example.com", "secret"));
+        User bob = userRepository.save(new User("Bob", "bob.search@example.com", "secret"));
+        Group group = groupService.createGroup("Search flat", alice);
+        groupService.addMember(group.getId(), bob);
+        Group other = groupService.createGroup("Other flat", alice);
+
+        Chore kitchen = choreService.createChore(new Chore("Clean the kitchen", "Wipe the counters", null,
+                "pending", null, null), group.getId(), alice.getId(), false);
+        Chore bathroom = choreService.createChore(new Chore("Bathroom", "Cleaning products are under the sink",
+                null, "pending", null, null), group.getId(), bob.getId(), false);
+        choreService.createChore(new Chore("Clean the car", null, null, "pending", null, null), other.getId(),
+                alice.getId(), false);
+        Expense supplies = expense("Cleaning supplies", "Sponges and bleach", bob, true, group);
+        Expense gift = expense("Café gift for the cleaner", "Thanks", bob, false, group);
+
+        // Prefix "clean" matches clean and cleaning; titles outrank descriptions; other groups are not searched
+        assertEquals(List.of("chore:" + kitchen.getId(), "expense:" + gift.getId(),
+                "expense:" + supplies.getId(), "chore:" + bathroom.getId()),
+                keys(searchService.search(group.getId(), null, "clean", 0, 20)));
+
+        // Every word must match; accents and case are ignored
+        assertEquals(List.of("expense:" + gift.getId()),
+                keys(searchService.search(group.getId(), null, "CAFE clean", 0, 20)));
+        assertTrue(searchService.search(group.getId(), null, "clean zebra", 0, 20).getItems().isEmpty());
+
+        // Alice sees split expenses and her own only
+        SearchService.SearchResults forAlice = searchService.search(group.getId(), alice.getId(), "clean", 0, 20);
+        assertEquals(3, forAlice.getTotal());
+        assertFalse(keys(forAlice).contains("expense:" + gift.getId()));
+
+        SearchService.SearchResults second = searchService.search(group.getId(), null, "clean", 1, 3);
+        assertEquals(4, second.getTotal());
+        assertEquals(List.of("chore:" + bathroom.getId()), keys(second));
+        assertTrue(second.getUsers().containsKey(bob.getId()));
+
+        // Edits and deletes reach the index without a rebuild
+        Chore renamed = new Chore("Tidy the kitchen", "Wipe the counters", null, "pending", null, null);
+        choreService.updateChore(kitchen.getId(), renamed);
+        expenseService.deleteExpense(supplies.getId());
+        assertEquals(List.of("expense:" + gift.getId(), "chore:" + bathroom.getId()),
+                keys(searchService.search(group.getId(), null, "clean", 0, 20)));
+        assertEquals(List.of("chore:" + kitchen.getId()),
+                keys(searchService.search(group.getId(), null, "tidy", 0, 20)));
+
+        // A rebuilt index gives the same answer
+        searchService.evictGroup(group.getId());
+        assertEquals(List.of("expense:" + gift.getId(), "chore:" + bathroom.getId()),
+                keys(searchService.search(group.getId(), null, "clean", 0, 20)));
+    }
+
+    // Chores created in a transaction that rolls back leave neither the index nor the
+    // scoreboard changed; committed ones reach both
+    @Test
+    public void testChoresReachTheCachesOnlyWhenCommitted() {
+        User alice = userRepository.save(new User("Alice", "alice.rollback@example.com", "secret"));
+        User bob = userRepository.save(new User("Bob", "bob.rollback@example.com", "secret"));
+        Group group = groupService.createGroup("Rollback flat", alice);
+        groupService.addMember(group.getId(), bob);
+        assertTrue(searchService.search(group.getId(), null, "vacuum", 0, 20).getItems().isEmpty());
+        Map<Long, Integer> before = pendingWeights(group);
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            choreService.createChores(group.getId(), vacuumChores(), Arrays.asList(null, null, bob.getId()), true);
+            choreService.createChore(new Chore("Vacuum the car", null, null, "pending", null, null),
+                    group.getId(), null, true);
+            status.setRollbackOnly();
+        });
+        assertTrue(searchService.search(group.getId(), null, "vacuum", 0, 20).getItems().isEmpty());
+        assertEquals(before, pendingWeights(group));
+
+        transaction.executeWithoutResult(status -> choreService.createChores(group.getId(), vacuumChores(),
+                Arrays.asList(null, null, bob.getId()), true));
+        assertEquals(3, searchService.search(group.getId(), null, "vacuum", 0, 20).getTotal());
+        assertEquals(3, pendingWeights(group).values().stream().mapToInt(Integer::intValue).sum());
+    }
+
+    private static List<Chore> vacuumChores() {
+        return List.of(new Chore("Vacuum the hall", null, null, "pending", null, null),
+                new Chore("Vacuum the stairs", null, null, "pending", null, null),
+                new Chore("Vacuum the sofa", null, null, "pending", null, null));
+    }
+
+    private Map<Long, Integer> pendingWeights(Group group) {
+        return fairnessService.calculateFairnessScores(group.getId()).values().stream()
+                .collect(Collectors.toMap(FairnessService.FairnessScore::getUserId,
+                        FairnessService.FairnessScore::getPendingWeight));
+    }
+
+    private Expense expense(String title, String description, User paidBy, boolean split, Group group) {
+        Expense expense = new Expense();
+        expense.setTitle(title);
+        expense.setDescription(description);
+        expense.setAmount(12.5);
+        expense.setIsSplit(split);
+        return expenseService.createExpense(expense, group.getId(), paidBy.getId());
+    }
+
+    private static List<String> keys(SearchService.SearchResults results) {
+        return results.getItems().stream()
+                .map(hit -> hit.getType() + ":" + (hit.getItem() instanceof ChoreRepository.ChoreRow
+                        ? ((ChoreRepository.ChoreRow) hit.getItem()).getId()
+                        : ((ExpenseRepository.ExpenseRow) hit.getItem()).getId()))
+                .collect(Collectors.toList());
+    }
+}
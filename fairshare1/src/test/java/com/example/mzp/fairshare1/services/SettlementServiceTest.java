@@ -0,0 +1,45 @@
+package com.example.mzp.fairshare1.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SettlementServiceTest {
+
+    @Test
+    public void testDebtsAreSettledWithFewestTransfers() {
+        // Alice paid 90 for a 3-way split, Bob paid 30, Carol paid nothing:
+        // each owes 40, so Alice is +50, Bob -10, Carol -40.
+        SettlementService.Balance alice = balance(1L, "Alice", 9000, 4000);
+        SettlementService.Balance bob = balance(2L, "Bob", 3000, 4000);
+        SettlementService.Balance carol = balance(3L, "Carol", 0, 4000);
+
+        List<SettlementService.Transfer> transfers = SettlementService.simplifyDebts(List.of(alice, bob, carol));
+
+        assertEquals(2, transfers.size());
+        assertEquals(3L, transfers.get(0).getFromUserId());
+        assertEquals(1L, transfers.get(0).getToUserId());
+        assertEquals(40.0, transfers.get(0).getAmount());
+        assertEquals(2L, transfers.get(1).getFromUserId());
+        assertEquals(1L, transfers.get(1).getToUserId());
+        assertEquals(10.0, transfers.get(1).getAmount());
+    }
+
+    @Test
+    public void testSettledGroupNeedsNoTransfers() {
+        SettlementService.Balance alice = balance(1L, "Alice", 2000, 2000);
+        SettlementService.Balance bob = balance(2L, "Bob", 2000, 2000);
+
+        assertTrue(SettlementService.simplifyDebts(List.of(alice, bob)).isEmpty());
+        assertEquals(0.0, alice.getNet());
+    }
+
+    private static SettlementService.Balance balance(Long userId, String name, long paidCents, long shareCents) {
+        SettlementService.Balance balance = new SettlementService.Balance(userId, name);
+        balance.addPaid(paidCents);
+        balance.addShare(shareCents);
+        return balance;
+    }
+}